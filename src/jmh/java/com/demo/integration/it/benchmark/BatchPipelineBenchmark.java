@@ -0,0 +1,108 @@
+package com.demo.integration.it.benchmark;
+
+import com.demo.integration.it.config.FileProcessorProperties;
+import com.demo.integration.it.config.ObjectMapperConfiguration;
+import com.demo.integration.it.handler.BatchEnrichmentHandler;
+import com.demo.integration.it.handler.BatchSplittingHandler;
+import com.demo.integration.it.model.BatchRequest;
+import com.demo.integration.it.model.OrderRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * @created by 16/10/2026  - 19:35
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * In-memory stages between reading a workbook and writing to Redis: splitting
+ * the records into batches, wrapping a batch in a {@link BatchRequest} and
+ * serializing it with the application's {@link ObjectMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BatchPipelineBenchmark {
+
+   private static final String CHECKSUM = "xxh128:9n8bZ1bTr2hAq5Gm0kHc4w==";
+
+   @Param({"10000", "100000"})
+   private int records;
+
+   @Param({"100", "1000"})
+   private int batchSize;
+
+   @Param({"true", "false"})
+   private boolean deterministicBatchIds;
+
+   private List<OrderRecord> orderRecords;
+   private List<OrderRecord> batch;
+   private BatchRequest batchRequest;
+
+   private BatchSplittingHandler splittingHandler;
+   private BatchEnrichmentHandler enrichmentHandler;
+   private ObjectMapper objectMapper;
+
+   @Setup(Level.Trial)
+   public void setUp() {
+      FileProcessorProperties properties = new FileProcessorProperties();
+      properties.setBatchSize(batchSize);
+      properties.getIngestion().setDeterministicBatchIds(deterministicBatchIds);
+
+      splittingHandler = new BatchSplittingHandler(properties);
+      enrichmentHandler = new BatchEnrichmentHandler(properties);
+      objectMapper = new ObjectMapperConfiguration().objectMapper();
+
+      orderRecords = new ArrayList<>(records);
+      LocalDate start = LocalDate.of(2025, 1, 1);
+      for (int i = 1; i <= records; i++) {
+         orderRecords.add(OrderRecord.builder()
+                 .orderId("ORD-" + i)
+                 .customerName("Customer " + (i % 5000))
+                 .product("Product " + (i % 5))
+                 .amount(BigDecimal.valueOf(10 + (i % 1000) * 1.25))
+                 .orderDate(start.plusDays(i % 365))
+                 .build());
+      }
+
+      batch = new ArrayList<>(orderRecords.subList(0, batchSize));
+      batchRequest = enrichmentHandler.createBatchRequest(batch, "orders.xlsx", 1, CHECKSUM);
+   }
+
+   @Benchmark
+   public List<List<OrderRecord>> splitIntoBatches() {
+      return splittingHandler.splitIntoBatches(orderRecords);
+   }
+
+   @Benchmark
+   public BatchRequest createBatchRequest() {
+      return enrichmentHandler.createBatchRequest(batch, "orders.xlsx", 1, CHECKSUM);
+   }
+
+   @Benchmark
+   public byte[] serializeBatchRequest() throws JsonProcessingException {
+      return objectMapper.writeValueAsBytes(batchRequest);
+   }
+}
@@ -0,0 +1,77 @@
+package com.demo.integration.it.benchmark;
+
+import com.demo.integration.it.model.OrderRecord;
+import com.demo.integration.it.service.ExcelBatchIterator;
+import com.demo.integration.it.service.ExcelReaderService;
+import com.demo.integration.it.service.FastExcelReaderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * @created by 16/10/2026  - 19:20
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Reads the same generated workbook with the POI reader, the FastExcel reader and
+ * the FastExcel batch iterator used by streaming reads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ExcelReaderBenchmark {
+
+   @Param({"10000", "100000", "1000000"})
+   private int rows;
+
+   private File workbook;
+   private ExcelReaderService poiReader;
+   private FastExcelReaderService fastReader;
+
+   @Setup(Level.Trial)
+   public void setUp() throws IOException {
+      workbook = WorkbookGenerator.orders(rows);
+      poiReader = new ExcelReaderService();
+      fastReader = new FastExcelReaderService(poiReader);
+   }
+
+   @Benchmark
+   public List<OrderRecord> poiReadAll() {
+      return poiReader.readExcelFile(workbook);
+   }
+
+   @Benchmark
+   public List<OrderRecord> fastExcelReadAll() {
+      return fastReader.readExcelFile(workbook);
+   }
+
+   @Benchmark
+   public int fastExcelStreamBatches(Blackhole blackhole) {
+      try (ExcelBatchIterator batches = fastReader.openBatchIterator(workbook, 100)) {
+         while (batches.hasNext()) {
+            blackhole.consume(batches.next());
+         }
+         return batches.getBatchCount();
+      }
+   }
+}
@@ -0,0 +1,120 @@
+package com.demo.integration.it.benchmark;
+
+import com.demo.integration.it.codec.BatchPayloadCodec;
+import com.demo.integration.it.codec.BatchPayloadCodecs;
+import com.demo.integration.it.codec.PayloadCompression;
+import com.demo.integration.it.codec.PayloadFormat;
+import com.demo.integration.it.config.FileProcessorProperties;
+import com.demo.integration.it.config.ObjectMapperConfiguration;
+import com.demo.integration.it.constant.AppConstants;
+import com.demo.integration.it.model.BatchRequest;
+import com.demo.integration.it.model.OrderRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * @created by 17/10/2026  - 11:10
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Encode/decode cost of each stream payload format for one batch, and the full
+ * stream entry encoding including optional compression. Encoded sizes are
+ * printed once at setup. {@code decodeForUpload} runs with the passthrough body
+ * enabled, so for JSON it only reads the envelope.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PayloadCodecBenchmark {
+
+   @Param({"JSON", "SMILE", "CBOR", "BINARY"})
+   private PayloadFormat format;
+
+   @Param({"100", "1000"})
+   private int batchSize;
+
+   @Param({"none", "deflate"})
+   private String compression;
+
+   private BatchPayloadCodecs codecs;
+   private BatchPayloadCodec codec;
+   private BatchRequest batch;
+   private byte[] encoded;
+   private Map<String, byte[]> entry;
+
+   @Setup(Level.Trial)
+   public void setUp() throws IOException {
+      FileProcessorProperties properties = new FileProcessorProperties();
+      properties.getRedisQueue().setPayloadFormat(format);
+      properties.getCompression().setAlgorithm(compression);
+      properties.getHttpClient().setPassthroughBody(true);
+      codecs = new BatchPayloadCodecs(new ObjectMapperConfiguration().objectMapper(), properties,
+              new PayloadCompression(properties, new SimpleMeterRegistry()));
+      codec = codecs.codec(format);
+
+      List<OrderRecord> records = new ArrayList<>(batchSize);
+      LocalDate start = LocalDate.of(2025, 1, 1);
+      for (int i = 1; i <= batchSize; i++) {
+         records.add(OrderRecord.builder()
+                 .orderId("ORD-" + i)
+                 .customerName("Customer " + (i % 5000))
+                 .product("Product " + (i % 5))
+                 .amount(BigDecimal.valueOf(10 + (i % 1000) * 1.25))
+                 .orderDate(start.plusDays(i % 365))
+                 .build());
+      }
+      batch = new BatchRequest(UUID.randomUUID().toString(), UUID.randomUUID().toString(),
+              Instant.now(), "orders.xlsx", records);
+
+      encoded = codec.encode(batch);
+      entry = codecs.encode(batch);
+      System.out.printf("%n%s payload for %d records: %d bytes, %d bytes with %s compression%n", format, batchSize,
+              encoded.length, codecs.encode(batch).get(AppConstants.STREAM_PAYLOAD_FIELD).length, compression);
+   }
+
+   @Benchmark
+   public byte[] encode() throws IOException {
+      return codec.encode(batch);
+   }
+
+   @Benchmark
+   public BatchRequest decode() throws IOException {
+      return codec.decode(encoded);
+   }
+
+   @Benchmark
+   public Map<String, byte[]> encodeStreamEntry() throws IOException {
+      return codecs.encode(batch);
+   }
+
+   @Benchmark
+   public BatchRequest decodeForUpload() throws IOException {
+      return codecs.decodeForUpload(entry);
+   }
+}
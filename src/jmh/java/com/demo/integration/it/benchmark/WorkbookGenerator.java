@@ -0,0 +1,73 @@
+package com.demo.integration.it.benchmark;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/*
+ * @created by 16/10/2026  - 19:05
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Writes order workbooks in the layout the readers expect (header row, then
+ * orderId, customerName, product, amount, orderDate). Files are cached in the
+ * temp directory by row count, so the 1M-row workbook is only generated once.
+ */
+final class WorkbookGenerator {
+
+   private static final String[] PRODUCTS = {"Laptop", "Monitor", "Keyboard", "Mouse", "Headset"};
+
+   private WorkbookGenerator() {
+   }
+
+   static File orders(int rows) throws IOException {
+      Path path = Path.of(System.getProperty("java.io.tmpdir"), "jmh-orders-" + rows + ".xlsx");
+      if (Files.exists(path)) {
+         return path.toFile();
+      }
+
+      Path tmp = Files.createTempFile(path.getParent(), "jmh-orders-", ".xlsx.tmp");
+      try (SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+           OutputStream out = new FileOutputStream(tmp.toFile())) {
+         Sheet sheet = workbook.createSheet("Orders");
+         CellStyle dateStyle = workbook.createCellStyle();
+         dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+
+         Row header = sheet.createRow(0);
+         header.createCell(0).setCellValue("Order ID");
+         header.createCell(1).setCellValue("Customer");
+         header.createCell(2).setCellValue("Product");
+         header.createCell(3).setCellValue("Amount");
+         header.createCell(4).setCellValue("Order Date");
+
+         LocalDate start = LocalDate.of(2025, 1, 1);
+         for (int i = 1; i <= rows; i++) {
+            Row row = sheet.createRow(i);
+            row.createCell(0).setCellValue("ORD-" + i);
+            row.createCell(1).setCellValue("Customer " + (i % 5000));
+            row.createCell(2).setCellValue(PRODUCTS[i % PRODUCTS.length]);
+            row.createCell(3).setCellValue(10 + (i % 1000) * 1.25);
+            var date = row.createCell(4);
+            date.setCellValue(start.plusDays(i % 365));
+            date.setCellStyle(dateStyle);
+         }
+
+         workbook.write(out);
+         workbook.dispose();
+      }
+
+      Files.move(tmp, path);
+      return path.toFile();
+   }
+}
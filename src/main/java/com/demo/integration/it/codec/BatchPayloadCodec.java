@@ -0,0 +1,25 @@
+package com.demo.integration.it.codec;
+
+import com.demo.integration.it.model.BatchRequest;
+
+import java.io.IOException;
+
+/*
+ * @created by 17/10/2026  - 10:05
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Encodes {@link BatchRequest}s for the Redis stream. The content type is written
+ * next to the payload in every entry, so consumers decode each entry with the
+ * codec it was written with.
+ */
+public interface BatchPayloadCodec {
+
+   String contentType();
+
+   byte[] encode(BatchRequest batch) throws IOException;
+
+   BatchRequest decode(byte[] payload) throws IOException;
+}
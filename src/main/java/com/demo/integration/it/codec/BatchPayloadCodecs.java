@@ -0,0 +1,129 @@
+package com.demo.integration.it.codec;
+
+import com.demo.integration.it.config.FileProcessorProperties;
+import com.demo.integration.it.constant.AppConstants;
+import com.demo.integration.it.model.BatchRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * @created by 17/10/2026  - 10:35
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * All stream payload codecs. Producers encode with the configured format;
+ * consumers decode each entry by the content type in its codec field, so formats
+ * can be switched while older entries are still in the stream. Entries without a
+ * codec field are JSON.
+ */
+@Component
+public class BatchPayloadCodecs {
+
+   private static final String STREAM_TARGET = "stream";
+
+   private final Map<PayloadFormat, BatchPayloadCodec> byFormat = new EnumMap<>(PayloadFormat.class);
+   private final Map<String, BatchPayloadCodec> byContentType = new HashMap<>();
+   private final BatchPayloadCodec writeCodec;
+   private final PayloadCompression compression;
+   private final boolean passthroughBody;
+
+   public BatchPayloadCodecs(ObjectMapper objectMapper, FileProcessorProperties properties,
+                             PayloadCompression compression) {
+      this.compression = compression;
+      this.passthroughBody = properties.getHttpClient().isPassthroughBody();
+      register(PayloadFormat.JSON, new JacksonBatchPayloadCodec(PayloadFormat.JSON.getContentType(), objectMapper));
+      register(PayloadFormat.SMILE, new JacksonBatchPayloadCodec(PayloadFormat.SMILE.getContentType(),
+              objectMapper.copyWith(new SmileFactory())));
+      register(PayloadFormat.CBOR, new JacksonBatchPayloadCodec(PayloadFormat.CBOR.getContentType(),
+              objectMapper.copyWith(new CBORFactory())));
+      register(PayloadFormat.BINARY, new BinaryBatchPayloadCodec());
+
+      this.writeCodec = byFormat.get(properties.getRedisQueue().getPayloadFormat());
+   }
+
+   private void register(PayloadFormat format, BatchPayloadCodec codec) {
+      byFormat.put(format, codec);
+      byContentType.put(codec.contentType(), codec);
+   }
+
+   public BatchPayloadCodec codec(PayloadFormat format) {
+      return byFormat.get(format);
+   }
+
+   /**
+    * Stream entry fields for the batch in the configured format, compressed if
+    * enabled and worthwhile.
+    */
+   public Map<String, byte[]> encode(BatchRequest batch) throws IOException {
+      PayloadCompression.Compressed payload = compression.compress(writeCodec.encode(batch), STREAM_TARGET);
+
+      Map<String, byte[]> entry = new HashMap<>(4);
+      entry.put(AppConstants.STREAM_CODEC_FIELD, writeCodec.contentType().getBytes(StandardCharsets.UTF_8));
+      entry.put(AppConstants.STREAM_PAYLOAD_FIELD, payload.bytes());
+      if (payload.algorithm() != null) {
+         entry.put(AppConstants.STREAM_COMPRESSION_FIELD, payload.algorithm().getBytes(StandardCharsets.UTF_8));
+      }
+      return entry;
+   }
+
+   public BatchRequest decode(Map<?, ?> entry) throws IOException {
+      return codecFor(entry).decode(payloadBytes(entry));
+   }
+
+   /**
+    * Batch for the upload path. With passthrough enabled, JSON entries are only
+    * decoded down to their envelope and keep their bytes as the request body;
+    * other formats are decoded fully.
+    */
+   public BatchRequest decodeForUpload(Map<?, ?> entry) throws IOException {
+      BatchPayloadCodec codec = codecFor(entry);
+      if (passthroughBody && codec == byFormat.get(PayloadFormat.JSON)) {
+         return ((JacksonBatchPayloadCodec) codec).decodeEnvelope(payloadBytes(entry));
+      }
+      return codec.decode(payloadBytes(entry));
+   }
+
+   /**
+    * Uncompressed payload bytes of an entry, in the format of its codec.
+    */
+   public byte[] payloadBytes(Map<?, ?> entry) throws IOException {
+      Object payload = entry.get(AppConstants.STREAM_PAYLOAD_FIELD);
+      if (payload == null) {
+         throw new IOException("Stream entry has no " + AppConstants.STREAM_PAYLOAD_FIELD + " field");
+      }
+      Object algorithm = entry.get(AppConstants.STREAM_COMPRESSION_FIELD);
+      return compression.decompress(bytes(payload),
+              algorithm != null ? new String(bytes(algorithm), StandardCharsets.UTF_8) : null, STREAM_TARGET);
+   }
+
+   /**
+    * Codec an entry was written with, by its codec field.
+    */
+   public BatchPayloadCodec codecFor(Map<?, ?> entry) throws IOException {
+      Object codecField = entry.get(AppConstants.STREAM_CODEC_FIELD);
+      if (codecField == null) {
+         return byFormat.get(PayloadFormat.JSON);
+      }
+
+      String contentType = new String(bytes(codecField), StandardCharsets.UTF_8);
+      BatchPayloadCodec codec = byContentType.get(contentType);
+      if (codec == null) {
+         throw new IOException("Unknown stream payload codec: " + contentType);
+      }
+      return codec;
+   }
+
+   private static byte[] bytes(Object value) {
+      return value instanceof byte[] raw ? raw : value.toString().getBytes(StandardCharsets.UTF_8);
+   }
+}
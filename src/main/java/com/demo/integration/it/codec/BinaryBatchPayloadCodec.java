@@ -0,0 +1,144 @@
+package com.demo.integration.it.codec;
+
+import com.demo.integration.it.model.BatchRequest;
+import com.demo.integration.it.model.OrderRecord;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * @created by 17/10/2026  - 10:20
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Schema-based layout for {@link BatchRequest}: fields are written in a fixed
+ * order with no names, timestamps as numbers and amounts as unscaled value plus
+ * scale. Strings are length-prefixed UTF-8 with -1 for null.
+ */
+public class BinaryBatchPayloadCodec implements BatchPayloadCodec {
+
+   private static final int LAYOUT_VERSION = 1;
+
+   @Override
+   public String contentType() {
+      return PayloadFormat.BINARY.getContentType();
+   }
+
+   @Override
+   public byte[] encode(BatchRequest batch) throws IOException {
+      List<OrderRecord> records = batch.getRecords() != null ? batch.getRecords() : List.of();
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + records.size() * 64);
+
+      try (DataOutputStream out = new DataOutputStream(bytes)) {
+         out.writeByte(LAYOUT_VERSION);
+         writeString(out, batch.getBatchId());
+         writeString(out, batch.getRequestId());
+         out.writeBoolean(batch.getTimestamp() != null);
+         if (batch.getTimestamp() != null) {
+            out.writeLong(batch.getTimestamp().getEpochSecond());
+            out.writeInt(batch.getTimestamp().getNano());
+         }
+         writeString(out, batch.getSourceFileName());
+
+         out.writeInt(records.size());
+         for (OrderRecord record : records) {
+            writeString(out, record.getOrderId());
+            writeString(out, record.getCustomerName());
+            writeString(out, record.getProduct());
+            writeDecimal(out, record.getAmount());
+            out.writeBoolean(record.getOrderDate() != null);
+            if (record.getOrderDate() != null) {
+               out.writeInt((int) record.getOrderDate().toEpochDay());
+            }
+         }
+      }
+      return bytes.toByteArray();
+   }
+
+   @Override
+   public BatchRequest decode(byte[] payload) throws IOException {
+      try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+         int version = in.readUnsignedByte();
+         if (version != LAYOUT_VERSION) {
+            throw new IOException("Unsupported batch layout version " + version);
+         }
+
+         BatchRequest batch = new BatchRequest();
+         batch.setBatchId(readString(in));
+         batch.setRequestId(readString(in));
+         if (in.readBoolean()) {
+            batch.setTimestamp(Instant.ofEpochSecond(in.readLong(), in.readInt()));
+         }
+         batch.setSourceFileName(readString(in));
+
+         int count = in.readInt();
+         List<OrderRecord> records = new ArrayList<>(count);
+         for (int i = 0; i < count; i++) {
+            OrderRecord.OrderRecordBuilder record = OrderRecord.builder()
+                    .orderId(readString(in))
+                    .customerName(readString(in))
+                    .product(readString(in))
+                    .amount(readDecimal(in));
+            if (in.readBoolean()) {
+               record.orderDate(LocalDate.ofEpochDay(in.readInt()));
+            }
+            records.add(record.build());
+         }
+         batch.setRecords(records);
+         return batch;
+      }
+   }
+
+   private static void writeString(DataOutputStream out, String value) throws IOException {
+      if (value == null) {
+         out.writeInt(-1);
+         return;
+      }
+      byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(utf8.length);
+      out.write(utf8);
+   }
+
+   private static String readString(DataInputStream in) throws IOException {
+      int length = in.readInt();
+      if (length < 0) {
+         return null;
+      }
+      byte[] utf8 = new byte[length];
+      in.readFully(utf8);
+      return new String(utf8, StandardCharsets.UTF_8);
+   }
+
+   private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+      if (value == null) {
+         out.writeShort(-1);
+         return;
+      }
+      byte[] unscaled = value.unscaledValue().toByteArray();
+      out.writeShort(unscaled.length);
+      out.write(unscaled);
+      out.writeInt(value.scale());
+   }
+
+   private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+      int length = in.readShort();
+      if (length < 0) {
+         return null;
+      }
+      byte[] unscaled = new byte[length];
+      in.readFully(unscaled);
+      return new BigDecimal(new BigInteger(unscaled), in.readInt());
+   }
+}
@@ -0,0 +1,83 @@
+package com.demo.integration.it.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/*
+ * @created by 17/10/2026  - 12:05
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * JDK Deflate in the zlib-wrapped format (header and Adler-32 trailer), no extra
+ * dependencies. Decompression stops with an {@link IOException} once the output
+ * would exceed {@code maxInflatedBytes}, so a corrupt or hostile entry cannot
+ * inflate without bound.
+ */
+public class DeflatePayloadCompressor implements PayloadCompressor {
+
+   private static final int BUFFER_SIZE = 8192;
+
+   private final int level;
+   private final int maxInflatedBytes;
+
+   public DeflatePayloadCompressor(int level, int maxInflatedBytes) {
+      this.level = level;
+      this.maxInflatedBytes = maxInflatedBytes;
+   }
+
+   @Override
+   public String name() {
+      return "deflate";
+   }
+
+   @Override
+   public byte[] compress(byte[] payload) {
+      Deflater deflater = new Deflater(level);
+      try {
+         deflater.setInput(payload);
+         deflater.finish();
+
+         ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, payload.length / 4));
+         byte[] buffer = new byte[BUFFER_SIZE];
+         while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+         }
+         return out.toByteArray();
+      } finally {
+         deflater.end();
+      }
+   }
+
+   @Override
+   public byte[] decompress(byte[] payload) throws IOException {
+      Inflater inflater = new Inflater();
+      try {
+         inflater.setInput(payload);
+
+         ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(maxInflatedBytes, payload.length * 4L));
+         byte[] buffer = new byte[BUFFER_SIZE];
+         while (true) {
+            int inflated = inflater.inflate(buffer);
+            if (out.size() + (long) inflated > maxInflatedBytes) {
+               throw new IOException("Deflate payload inflates past " + maxInflatedBytes + " bytes");
+            }
+            out.write(buffer, 0, inflated);
+            if (inflater.finished()) {
+               return out.toByteArray();
+            }
+            if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+               throw new IOException("Truncated deflate payload");
+            }
+         }
+      } catch (DataFormatException e) {
+         throw new IOException("Corrupt deflate payload", e);
+      } finally {
+         inflater.end();
+      }
+   }
+}
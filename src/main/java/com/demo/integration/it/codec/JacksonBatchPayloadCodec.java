@@ -0,0 +1,71 @@
+package com.demo.integration.it.codec;
+
+import com.demo.integration.it.model.BatchRequest;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/*
+ * @created by 17/10/2026  - 10:12
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Jackson-based codec; the data format (JSON, Smile, CBOR) comes from the
+ * mapper's factory.
+ */
+public class JacksonBatchPayloadCodec implements BatchPayloadCodec {
+
+   private final String contentType;
+   private final ObjectMapper objectMapper;
+
+   public JacksonBatchPayloadCodec(String contentType, ObjectMapper objectMapper) {
+      this.contentType = contentType;
+      this.objectMapper = objectMapper;
+   }
+
+   @Override
+   public String contentType() {
+      return contentType;
+   }
+
+   @Override
+   public byte[] encode(BatchRequest batch) throws IOException {
+      return objectMapper.writeValueAsBytes(batch);
+   }
+
+   @Override
+   public BatchRequest decode(byte[] payload) throws IOException {
+      return objectMapper.readValue(payload, BatchRequest.class);
+   }
+
+   /**
+    * Reads only the top-level scalar fields and skips the records without
+    * binding them. The payload is kept on the batch as its raw form.
+    */
+   public BatchRequest decodeEnvelope(byte[] payload) throws IOException {
+      BatchRequest batch = new BatchRequest();
+      try (JsonParser parser = objectMapper.createParser(payload)) {
+         if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Batch payload is not an object");
+         }
+         while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+               case "batchId" -> batch.setBatchId(parser.getValueAsString());
+               case "requestId" -> batch.setRequestId(parser.getValueAsString());
+               case "sourceFileName" -> batch.setSourceFileName(parser.getValueAsString());
+               case "timestamp" -> batch.setTimestamp(objectMapper.readValue(parser, Instant.class));
+               default -> parser.skipChildren();
+            }
+         }
+      }
+      batch.setRawJson(payload);
+      return batch;
+   }
+}
@@ -0,0 +1,134 @@
+package com.demo.integration.it.codec;
+
+import com.demo.integration.it.config.FileProcessorProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * @created by 17/10/2026  - 12:15
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Optional compression of batch payloads in the stream and in failed-batch rows.
+ * Payloads below the size threshold, or that would not shrink, are stored as they
+ * are. Compressed payloads are marked with the algorithm name: a separate field in
+ * stream entries, a {@code <name>:} prefix before the base64 data in the TEXT
+ * column. Unmarked data is read as uncompressed, so existing entries and rows stay
+ * readable.
+ */
+@Component
+public class PayloadCompression {
+
+   public static final String NONE = "none";
+
+   private final Map<String, PayloadCompressor> compressors = new HashMap<>();
+   private final PayloadCompressor writeCompressor;
+   private final int thresholdBytes;
+   private final MeterRegistry meterRegistry;
+
+   public PayloadCompression(FileProcessorProperties properties, MeterRegistry meterRegistry) {
+      this.meterRegistry = meterRegistry;
+      FileProcessorProperties.Compression compression = properties.getCompression();
+      register(new DeflatePayloadCompressor(compression.getLevel(), compression.getMaxInflatedBytes()));
+
+      String algorithm = compression.getAlgorithm();
+      if (NONE.equalsIgnoreCase(algorithm)) {
+         this.writeCompressor = null;
+      } else {
+         this.writeCompressor = compressors.get(algorithm.toLowerCase());
+         if (writeCompressor == null) {
+            throw new IllegalArgumentException("Unknown payload compression: " + algorithm);
+         }
+      }
+      this.thresholdBytes = compression.getThresholdBytes();
+   }
+
+   private void register(PayloadCompressor compressor) {
+      compressors.put(compressor.name(), compressor);
+   }
+
+   /**
+    * Compresses the payload if enabled and worthwhile. {@code target} tags the
+    * metrics ({@code stream}, {@code db}).
+    */
+   public Compressed compress(byte[] payload, String target) throws IOException {
+      if (writeCompressor == null || payload.length < thresholdBytes) {
+         return new Compressed(payload, null);
+      }
+
+      long start = System.nanoTime();
+      byte[] compressed = writeCompressor.compress(payload);
+      timer(writeCompressor.name(), "compress", target).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+      if (compressed.length >= payload.length) {
+         return new Compressed(payload, null);
+      }
+      DistributionSummary.builder("payload.compression.ratio")
+              .tag("algorithm", writeCompressor.name())
+              .tag("target", target)
+              .register(meterRegistry)
+              .record((double) payload.length / compressed.length);
+      return new Compressed(compressed, writeCompressor.name());
+   }
+
+   public byte[] decompress(byte[] payload, String algorithm, String target) throws IOException {
+      if (algorithm == null || NONE.equals(algorithm)) {
+         return payload;
+      }
+      PayloadCompressor compressor = compressors.get(algorithm);
+      if (compressor == null) {
+         throw new IOException("Unknown payload compression: " + algorithm);
+      }
+
+      long start = System.nanoTime();
+      byte[] decompressed = compressor.decompress(payload);
+      timer(algorithm, "decompress", target).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      return decompressed;
+   }
+
+   /**
+    * JSON for a TEXT column, compressed as {@code <name>:<base64>} if worthwhile.
+    */
+   public String compressText(String json, String target) throws IOException {
+      Compressed compressed = compress(json.getBytes(StandardCharsets.UTF_8), target);
+      if (compressed.algorithm() == null) {
+         return json;
+      }
+      return compressed.algorithm() + ":" + Base64.getEncoder().encodeToString(compressed.bytes());
+   }
+
+   public String decompressText(String stored, String target) throws IOException {
+      int separator = stored.indexOf(':');
+      if (stored.startsWith("{") || separator < 0) {
+         return stored;
+      }
+      byte[] compressed = Base64.getDecoder().decode(stored.substring(separator + 1));
+      return new String(decompress(compressed, stored.substring(0, separator), target), StandardCharsets.UTF_8);
+   }
+
+   private Timer timer(String algorithm, String operation, String target) {
+      return Timer.builder("payload.compression.time")
+              .tag("algorithm", algorithm)
+              .tag("operation", operation)
+              .tag("target", target)
+              .register(meterRegistry);
+   }
+
+   /**
+    * Payload bytes and the algorithm they were compressed with, {@code null} if
+    * stored uncompressed.
+    */
+   public record Compressed(byte[] bytes, String algorithm) {
+   }
+}
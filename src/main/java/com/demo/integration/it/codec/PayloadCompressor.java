@@ -0,0 +1,24 @@
+package com.demo.integration.it.codec;
+
+import java.io.IOException;
+
+/*
+ * @created by 17/10/2026  - 12:00
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Compression algorithm for batch payloads. The name is recorded with every
+ * compressed payload, so it must stay stable once data was written with it.
+ * Further algorithms (LZ4, Zstd) plug in by implementing this and registering
+ * with {@link PayloadCompression}.
+ */
+public interface PayloadCompressor {
+
+   String name();
+
+   byte[] compress(byte[] payload) throws IOException;
+
+   byte[] decompress(byte[] payload) throws IOException;
+}
@@ -0,0 +1,41 @@
+package com.demo.integration.it.codec;
+
+/*
+ * @created by 17/10/2026  - 10:08
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Stream payload formats, identified in stream entries by their content type.
+ */
+public enum PayloadFormat {
+
+   /**
+    * Jackson JSON, the format entries had before the codec field existed.
+    */
+   JSON("application/json"),
+
+   /**
+    * Jackson Smile: binary JSON with back-references for repeated field names.
+    */
+   SMILE("application/x-jackson-smile"),
+
+   CBOR("application/cbor"),
+
+   /**
+    * Fixed field layout of {@link com.demo.integration.it.model.BatchRequest}; the
+    * most compact, but any model change needs a new layout version.
+    */
+   BINARY("application/x-batch-request;v=1");
+
+   private final String contentType;
+
+   PayloadFormat(String contentType) {
+      this.contentType = contentType;
+   }
+
+   public String getContentType() {
+      return contentType;
+   }
+}
@@ -0,0 +1,114 @@
+package com.demo.integration.it.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/*
+ * @created by 16/10/2026  - 14:20
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+@Configuration
+@Slf4j
+public class ExecutionConfiguration {
+
+   private final FileProcessorProperties properties;
+
+   public ExecutionConfiguration(FileProcessorProperties properties) {
+      this.properties = properties;
+   }
+
+   /**
+    * Executor the stream consumer hands entries to for upload. Both modes push
+    * back on the stream read on purpose instead of queueing without bound: the
+    * platform pool runs the upload on the handing-over thread once its queue is
+    * full, and the virtual-thread executor blocks that thread until one of the
+    * {@code maxInFlight} uploads finishes. While it waits no further entries are
+    * read; they stay in the stream for other consumers. Acks and pending-entry
+    * reclaims run on the task scheduler, so they are not held up by the wait.
+    */
+   @Bean
+   public TaskExecutor httpUploadExecutor() {
+      if (useVirtualThreads()) {
+         SimpleAsyncTaskExecutor executor = virtualThreadExecutor("http-upload-vt-");
+         executor.setConcurrencyLimit(properties.getExecution().getMaxInFlight());
+         return executor;
+      }
+
+      ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+      executor.setCorePoolSize(properties.getHttpClient().getConcurrentUploads());
+      executor.setMaxPoolSize(properties.getHttpClient().getConcurrentUploads() * 2);
+      executor.setQueueCapacity(100);
+      executor.setThreadNamePrefix("http-upload-");
+      executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+      executor.initialize();
+      return executor;
+   }
+
+   /**
+    * Runs the read-split-publish chain for one file per task. Bounded to the
+    * ingestion parallelism; when all workers are busy the poller thread processes
+    * the next file itself, which holds back further polls.
+    */
+   @Bean
+   public TaskExecutor fileProcessingExecutor() {
+      int parallelism = properties.getIngestion().getParallelism();
+      if (useVirtualThreads()) {
+         SimpleAsyncTaskExecutor executor = virtualThreadExecutor("file-processing-vt-");
+         executor.setConcurrencyLimit(parallelism);
+         return executor;
+      }
+
+      ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+      executor.setCorePoolSize(parallelism);
+      executor.setMaxPoolSize(parallelism);
+      executor.setQueueCapacity(parallelism);
+      executor.setThreadNamePrefix("file-processing-");
+      executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+      executor.initialize();
+      return executor;
+   }
+
+   /**
+    * Scheduler for blocking calls (JPA, blocking Redis) made from reactive chains.
+    * Left unthrottled as it is fed from event-loop threads; the Hikari pool is the
+    * effective limit for JPA work.
+    */
+   @Bean
+   public Scheduler blockingCallScheduler() {
+      if (useVirtualThreads()) {
+         return Schedulers.fromExecutor(virtualThreadExecutor("blocking-vt-"));
+      }
+      return Schedulers.boundedElastic();
+   }
+
+   /**
+    * One virtual thread per task; callers set a concurrency limit where the work
+    * needs one, and submitters then wait for a permit.
+    */
+   private SimpleAsyncTaskExecutor virtualThreadExecutor(String threadNamePrefix) {
+      SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+      executor.setVirtualThreads(true);
+      return executor;
+   }
+
+   private boolean useVirtualThreads() {
+      if (properties.getExecution().getMode() != FileProcessorProperties.ExecutionMode.VIRTUAL) {
+         return false;
+      }
+      if (Runtime.version().feature() < 21) {
+         log.warn("Virtual thread execution requested but runtime is Java {}; using platform threads",
+                 Runtime.version().feature());
+         return false;
+      }
+      return true;
+   }
+}
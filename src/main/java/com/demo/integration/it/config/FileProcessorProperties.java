@@ -6,6 +6,8 @@ package com.demo.integration.it.config;
  * @author Goodluck
  */
 
+import com.demo.integration.it.codec.PayloadFormat;
+import com.demo.integration.it.guard.ChecksumAlgorithm;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
@@ -23,6 +25,7 @@ public class FileProcessorProperties {
    private long maxRetryDelayMs;
    private long retryLockTimeoutMs;
    private int retryBatchSize;
+   private boolean streamingRead = false;
 
    private String alertErrorCodes = "500,503,401,403";
 
@@ -34,14 +37,31 @@ public class FileProcessorProperties {
 
    private RedisQueue redisQueue = new RedisQueue();
    private HttpClient httpClient = new HttpClient();
+   private Execution execution = new Execution();
+   private Ingestion ingestion = new Ingestion();
+   private AdaptiveConcurrency adaptiveConcurrency = new AdaptiveConcurrency();
+   private Compression compression = new Compression();
 
    @Data
    public static class RedisQueue {
       private String streamKey = "batch-upload-stream";
       private String consumerGroup = "upload-workers";
+      private String consumerName = "worker-local";
       private int batchSize = 10;
       private long pollTimeout = 5000;
       private String dlqKey = "batch-upload-dlq";
+      private boolean publishPipelined = false;
+      private int publishFlushSize = 50;
+      private long publishLingerMs = 20;
+      private long ackFlushIntervalMs = 100;
+      private int ackMaxBatch = 500;
+      private long reclaimIntervalMs = 30000;
+      private long reclaimMinIdleMs = 300000;
+      private int reclaimBatchSize = 100;
+      private int maxDeliveries = 5;
+      private PayloadFormat payloadFormat = PayloadFormat.JSON;
+      private int claimCheckThresholdBytes = 0;
+      private long claimCheckTtlMs = 86400000;
    }
 
    @Data
@@ -50,5 +70,56 @@ public class FileProcessorProperties {
       private int connectionTimeout = 5000;
       private int readTimeout = 30000;
       private int concurrentUploads = 10;
+      private boolean reactiveUploads = false;
+      private int reactiveConcurrency = 256;
+      private boolean passthroughBody = false;
+   }
+
+   @Data
+   public static class Execution {
+      private ExecutionMode mode = ExecutionMode.PLATFORM;
+      private int maxInFlight = 1000;
+   }
+
+   @Data
+   public static class Ingestion {
+      private int parallelism = 1;
+      private boolean watchEnabled = true;
+      private long watchSettleMs = 250;
+      private long rescanIntervalMs = 60000;
+      private ChecksumAlgorithm checksumAlgorithm = ChecksumAlgorithm.SHA256;
+      private long leaseTtlMs = 60000;
+      private long maxInFlightBytes = 512L * 1024 * 1024;
+      private boolean deterministicBatchIds = false;
+      private long completionIdleTimeoutMs = 60000;
+      private long completionMaxDurationMs = 3600000;
+      private int checkpointIntervalBatches = 20;
+   }
+
+   @Data
+   public static class AdaptiveConcurrency {
+      private boolean enabled = false;
+      private int initialLimit = 20;
+      private int minLimit = 2;
+      private int maxLimit = 500;
+      private int windowSize = 100;
+      private long latencyThresholdMs = 2000;
+      private double overloadRateThreshold = 0.05;
+      private double backoffRatio = 0.7;
+      private int maxQueued = 1000;
+      private long maxWaitMs = 30000;
+   }
+
+   @Data
+   public static class Compression {
+      private String algorithm = "none";
+      private int thresholdBytes = 1024;
+      private int level = 6;
+      private int maxInflatedBytes = 64 * 1024 * 1024;
+   }
+
+   public enum ExecutionMode {
+      PLATFORM,
+      VIRTUAL
    }
 }
@@ -2,16 +2,19 @@ package com.demo.integration.it.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.integration.redis.metadata.RedisMetadataStore;
 import org.springframework.integration.redis.store.RedisMessageStore;
-import org.springframework.integration.redis.util.RedisLockRegistry;
-import org.springframework.integration.support.locks.LockRegistry;
 
 /*
  * @created by 24/10/2025  - 00:48
@@ -20,11 +23,6 @@ import org.springframework.integration.support.locks.LockRegistry;
  */
 @Configuration
 public class RedisConfiguration {
-   @Bean
-   public LockRegistry redisLockRegistry(RedisConnectionFactory connectionFactory) {
-      return new RedisLockRegistry(connectionFactory, "file-processor-locks", 60000);
-   }
-
    @Bean
    public LettuceConnectionFactory redisConnectionFactory() {
       return new LettuceConnectionFactory();
@@ -54,8 +52,39 @@ public class RedisConfiguration {
       return template;
    }
 
+   /**
+    * String keys and fields with raw byte values, for stream entries whose
+    * payload may be binary.
+    */
+   @Bean
+   public RedisTemplate<String, byte[]> streamRedisTemplate(RedisConnectionFactory connectionFactory) {
+      RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+      template.setConnectionFactory(connectionFactory);
+      template.setKeySerializer(new StringRedisSerializer());
+      template.setValueSerializer(RedisSerializer.byteArray());
+      template.setHashKeySerializer(new StringRedisSerializer());
+      template.setHashValueSerializer(RedisSerializer.byteArray());
+      template.afterPropertiesSet();
+      return template;
+   }
+
    @Bean
    public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory connectionFactory) {
       return new StringRedisTemplate(connectionFactory);
    }
+
+   @Bean
+   public ReactiveRedisTemplate<String, byte[]> reactiveStreamRedisTemplate(ReactiveRedisConnectionFactory connectionFactory) {
+      RedisSerializationContext<String, byte[]> context = RedisSerializationContext
+              .<String, byte[]>newSerializationContext(new StringRedisSerializer())
+              .value(RedisSerializer.byteArray())
+              .hashValue(RedisSerializer.byteArray())
+              .build();
+      return new ReactiveRedisTemplate<>(connectionFactory, context);
+   }
+
+   @Bean
+   public ReactiveStringRedisTemplate reactiveStringRedisTemplate(ReactiveRedisConnectionFactory connectionFactory) {
+      return new ReactiveStringRedisTemplate(connectionFactory);
+   }
 }
@@ -11,9 +11,23 @@ public class AppConstants {
 
    // Channels
    public static  final String ERROR_CHANNEL = "fileProcessingErrorChannel";
+   public static final String STREAM_INBOUND_CHANNEL = "streamInboundChannel";
+   public static final String FILE_PROCESSING_CHANNEL = "fileProcessingChannel";
+   public static final String FILE_INTAKE_CHANNEL = "fileIntakeChannel";
 
    // Headers
    public static final String BATCH_FAILED_HEADER = "batchFailed";
    public static final String BATCH_ERROR_HEADER = "batchError";
    public static final String BATCH_PUBLISH_TIME_HEADER = "batchPublishTime";
+   public static final String BATCH_TOTAL_HEADER = "batchTotal";
+   public static final String BATCH_RECORD_ID_HEADER = "batchRecordId";
+   public static final String FILE_CHECKSUM_HEADER = "fileChecksum";
+   public static final String RESUME_AFTER_SEQUENCE_HEADER = "resumeAfterSequence";
+   public static final String CLAIM_CHECK_KEY_HEADER = "claimCheckKey";
+
+   // Stream entry fields
+   public static final String STREAM_PAYLOAD_FIELD = "batch";
+   public static final String STREAM_CODEC_FIELD = "codec";
+   public static final String STREAM_COMPRESSION_FIELD = "compression";
+   public static final String STREAM_PAYLOAD_REF_FIELD = "batchRef";
 }
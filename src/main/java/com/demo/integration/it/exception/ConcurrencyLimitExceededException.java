@@ -0,0 +1,17 @@
+package com.demo.integration.it.exception;
+
+/*
+ * @created by 16/10/2026  - 17:25
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+   public ConcurrencyLimitExceededException(String message) {
+      super(message);
+   }
+
+   public ConcurrencyLimitExceededException(String message, Throwable cause) {
+      super(message, cause);
+   }
+}
@@ -1,25 +1,34 @@
 package com.demo.integration.it.flow;
 
+import com.demo.integration.it.codec.BatchPayloadCodecs;
 import com.demo.integration.it.config.FileProcessorProperties;
+import com.demo.integration.it.constant.AppConstants;
 import com.demo.integration.it.handler.HttpUploadHandler;
 import com.demo.integration.it.model.BatchRequest;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.demo.integration.it.service.ClaimCheckStore;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.stream.StreamReceiver;
+import org.springframework.integration.channel.DirectChannel;
 import org.springframework.integration.dsl.IntegrationFlow;
+import org.springframework.integration.dsl.IntegrationFlowBuilder;
 import org.springframework.integration.dsl.MessageChannels;
+import org.springframework.integration.handler.ReactiveMessageHandlerAdapter;
 import org.springframework.integration.redis.inbound.ReactiveRedisStreamMessageProducer;
+import org.springframework.integration.redis.support.RedisHeaders;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessagingException;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
-import java.util.UUID;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.Map;
 
 /*
  * @created by 24/10/2025  - 00:49
@@ -32,14 +41,17 @@ public class ConsumerFlowConfiguration {
 
    private final FileProcessorProperties properties;
    private final HttpUploadHandler httpUploadHandler;
-   private final ObjectMapper objectMapper;
+   private final BatchPayloadCodecs payloadCodecs;
+   private final ClaimCheckStore claimCheckStore;
 
    public ConsumerFlowConfiguration(FileProcessorProperties properties,
                                     HttpUploadHandler httpUploadHandler,
-                                    ObjectMapper objectMapper) {
+                                    BatchPayloadCodecs payloadCodecs,
+                                    ClaimCheckStore claimCheckStore) {
       this.properties = properties;
       this.httpUploadHandler = httpUploadHandler;
-      this.objectMapper = objectMapper;
+      this.payloadCodecs = payloadCodecs;
+      this.claimCheckStore = claimCheckStore;
    }
 
    @Bean
@@ -50,50 +62,87 @@ public class ConsumerFlowConfiguration {
       messageProducer.setStreamReceiverOptions(
               StreamReceiver.StreamReceiverOptions.builder()
                       .pollTimeout(Duration.ofMillis(properties.getRedisQueue().getPollTimeout()))
-                      .targetType(String.class)
+                      .batchSize(properties.getRedisQueue().getBatchSize())
+                      // Whole entries with raw values: the codec field selects the payload decoder
+                      .hashValueSerializer(RedisSerializationContext.SerializationPair.byteArray())
                       .build());
       messageProducer.setAutoStartup(true);
       messageProducer.setAutoAck(false);
       messageProducer.setCreateConsumerGroup(true);
       messageProducer.setConsumerGroup(properties.getRedisQueue().getConsumerGroup());
-      messageProducer.setConsumerName("worker-%s".formatted(UUID.randomUUID()));
+      messageProducer.setConsumerName(properties.getRedisQueue().getConsumerName());
       messageProducer.setReadOffset(ReadOffset.latest());
       messageProducer.setExtractPayload(true);
       return messageProducer;
    }
 
+   @Bean
+   public MessageChannel streamInboundChannel() {
+      return new DirectChannel();
+   }
+
    @Bean
    public IntegrationFlow redisQueueToHttpFlow(
            LettuceConnectionFactory redisConnectionFactory,
            TaskExecutor httpUploadExecutor
    ) {
-      return IntegrationFlow
+      IntegrationFlowBuilder flow = IntegrationFlow
               .from(batchStreamProducer(redisConnectionFactory))
-              .wireTap(flow -> flow
-                      .handle(message -> log.info("Received raw message from Redis: headers={}, payload={}",
-                              message.getHeaders(), message.getPayload())))
-              .transform(String.class, json -> {
+              .channel(AppConstants.STREAM_INBOUND_CHANNEL)
+              .wireTap(wireTap -> wireTap
+                      .handle(message -> log.info("Received raw message from Redis: headers={}",
+                              message.getHeaders())));
+
+      // Decoding happens after the hand-off, so fetching a claim-checked payload
+      // never holds up the stream receiver
+      if (properties.getHttpClient().isReactiveUploads()) {
+         int concurrency = properties.getHttpClient().getReactiveConcurrency();
+         return flow
+                 .channel(MessageChannels.flux())
+                 .handle(new ReactiveMessageHandlerAdapter(httpUploadHandler::acknowledgeReactive),
+                         e -> e.reactive(messages -> messages.flatMap(message -> decodeReactive(message)
+                                 .flatMap(httpUploadHandler::uploadBatchReactive), concurrency)))
+                 .get();
+      }
+
+      return flow
+              .channel(MessageChannels.executor(httpUploadExecutor))
+              .enrichHeaders(headers -> headers.headerFunction(AppConstants.CLAIM_CHECK_KEY_HEADER,
+                      message -> ClaimCheckStore.referenceOf((Map<?, ?>) message.getPayload())))
+              .transform(Map.class, entry -> {
                  try {
-                    return objectMapper.readValue(json, BatchRequest.class);
+                    return payloadCodecs.decodeForUpload(claimCheckStore.checkOut(entry));
                  } catch (Exception e) {
-                    log.error("Failed to parse batch from queue", e);
-                    throw new MessagingException("JSON parsing failed", e);
+                    log.error("Failed to decode batch from queue", e);
+                    throw new MessagingException("Batch decoding failed", e);
                  }
               })
-              .channel(MessageChannels.executor(httpUploadExecutor))
               .handle(httpUploadHandler)
               .get();
    }
 
-   @Bean
-   public TaskExecutor httpUploadExecutor() {
-      ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-      executor.setCorePoolSize(properties.getHttpClient().getConcurrentUploads());
-      executor.setMaxPoolSize(properties.getHttpClient().getConcurrentUploads() * 2);
-      executor.setQueueCapacity(100);
-      executor.setThreadNamePrefix("http-upload-");
-      executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
-      executor.initialize();
-      return executor;
+   /**
+    * Undecodable entries are logged and left pending; the reclaimer retries them
+    * and eventually moves them to the DLQ. Failing the element would end the flux.
+    */
+   private Mono<Message<?>> decodeReactive(Message<?> message) {
+      return claimCheckStore.checkOutReactive((Map<?, ?>) message.getPayload())
+              .<BatchRequest>handle((entry, sink) -> {
+                 try {
+                    sink.next(payloadCodecs.decodeForUpload(entry));
+                 } catch (Exception e) {
+                    sink.error(e);
+                 }
+              })
+              .<Message<?>>map(batch -> MessageBuilder.withPayload(batch)
+                      .copyHeaders(message.getHeaders())
+                      .setHeader(AppConstants.CLAIM_CHECK_KEY_HEADER,
+                              ClaimCheckStore.referenceOf((Map<?, ?>) message.getPayload()))
+                      .build())
+              .onErrorResume(e -> {
+                 log.error("Failed to decode batch from queue, entry {} stays pending",
+                         message.getHeaders().get(RedisHeaders.STREAM_MESSAGE_ID), e);
+                 return Mono.empty();
+              });
    }
-}
\ No newline at end of file
+}
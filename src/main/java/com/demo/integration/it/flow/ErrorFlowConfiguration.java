@@ -2,6 +2,7 @@ package com.demo.integration.it.flow;
 
 import com.demo.integration.it.constant.AppConstants;
 import com.demo.integration.it.handler.FileMovementHandler;
+import com.demo.integration.it.service.FileCheckpointStore;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -24,10 +25,13 @@ import java.io.File;
 public class ErrorFlowConfiguration {
    private final FileMovementHandler fileMovementHandler;
    private final RedisMetadataStore redisMetadataStore;
+   private final FileCheckpointStore fileCheckpointStore;
 
-   public ErrorFlowConfiguration(FileMovementHandler fileMovementHandler, RedisMetadataStore redisMetadataStore) {
+   public ErrorFlowConfiguration(FileMovementHandler fileMovementHandler, RedisMetadataStore redisMetadataStore,
+                                 FileCheckpointStore fileCheckpointStore) {
       this.fileMovementHandler = fileMovementHandler;
       this.redisMetadataStore = redisMetadataStore;
+      this.fileCheckpointStore = fileCheckpointStore;
    }
 
    @Bean
@@ -40,6 +44,11 @@ public class ErrorFlowConfiguration {
 
                  Message<?> failedMessage = exception.getFailedMessage();
                  if (failedMessage != null) {
+                    // Files failing before any batch completes never reach the completion tracker
+                    String checksum = failedMessage.getHeaders().get(AppConstants.FILE_CHECKSUM_HEADER, String.class);
+                    if (checksum != null) {
+                       fileCheckpointStore.abandon(checksum);
+                    }
                     File originalFile = (File) failedMessage.getHeaders().get(FileHeaders.ORIGINAL_FILE);
                     if (originalFile != null) {
                        log.info("Original file path: {}", originalFile.getAbsolutePath());
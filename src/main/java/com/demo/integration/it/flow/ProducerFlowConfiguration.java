@@ -3,12 +3,19 @@ package com.demo.integration.it.flow;
 import com.demo.integration.it.config.FileProcessorProperties;
 import com.demo.integration.it.constant.AppConstants;
 import com.demo.integration.it.guard.FileIntegrityValidator;
+import com.demo.integration.it.guard.FileLeaseFilter;
+import com.demo.integration.it.guard.FileLeaseManager;
 import com.demo.integration.it.handler.*;
+import com.demo.integration.it.service.FileCheckpointStore;
+import com.demo.integration.it.service.FileCompletionTracker;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.integration.aggregator.SimpleSequenceSizeReleaseStrategy;
+import org.springframework.integration.channel.DirectChannel;
 import org.springframework.integration.dsl.IntegrationFlow;
+import org.springframework.integration.dsl.IntegrationFlowBuilder;
+import org.springframework.integration.dsl.MessageChannels;
 import org.springframework.integration.dsl.Pollers;
 import org.springframework.integration.file.FileHeaders;
 import org.springframework.integration.file.dsl.Files;
@@ -16,8 +23,9 @@ import org.springframework.integration.file.filters.CompositeFileListFilter;
 import org.springframework.integration.file.filters.FileSystemPersistentAcceptOnceFileListFilter;
 import org.springframework.integration.file.filters.SimplePatternFileListFilter;
 import org.springframework.integration.redis.metadata.RedisMetadataStore;
-import org.springframework.integration.redis.store.RedisMessageStore;
 import org.springframework.integration.transaction.TransactionInterceptorBuilder;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.messaging.MessageChannel;
 import org.springframework.transaction.annotation.Isolation;
 
 import java.io.File;
@@ -39,7 +47,10 @@ public class ProducerFlowConfiguration {
    private final BatchSplittingHandler batchSplittingHandler;
    private final BatchEnrichmentHandler batchEnrichmentHandler;
    private final RedisBatchWriterHandler batchWriterHandler;
-   private final FileAggregationHandler fileAggregationHandler;
+   private final FileCompletionTracker fileCompletionTracker;
+   private final TaskExecutor fileProcessingExecutor;
+   private final FileLeaseManager fileLeaseManager;
+   private final FileCheckpointStore fileCheckpointStore;
 
    public ProducerFlowConfiguration(FileProcessorProperties properties,
                                     FileIntegrityValidator fileIntegrityValidator,
@@ -47,63 +58,103 @@ public class ProducerFlowConfiguration {
                                     BatchSplittingHandler batchSplittingHandler,
                                     BatchEnrichmentHandler batchEnrichmentHandler,
                                     RedisBatchWriterHandler batchWriterHandler,
-                                    FileAggregationHandler fileAggregationHandler) {
+                                    FileCompletionTracker fileCompletionTracker,
+                                    @Qualifier("fileProcessingExecutor") TaskExecutor fileProcessingExecutor,
+                                    FileLeaseManager fileLeaseManager,
+                                    FileCheckpointStore fileCheckpointStore) {
       this.properties = properties;
       this.fileIntegrityValidator = fileIntegrityValidator;
       this.excelReadingHandler = excelReadingHandler;
       this.batchSplittingHandler = batchSplittingHandler;
       this.batchEnrichmentHandler = batchEnrichmentHandler;
       this.batchWriterHandler = batchWriterHandler;
-      this.fileAggregationHandler = fileAggregationHandler;
+      this.fileCompletionTracker = fileCompletionTracker;
+      this.fileProcessingExecutor = fileProcessingExecutor;
+      this.fileLeaseManager = fileLeaseManager;
+      this.fileCheckpointStore = fileCheckpointStore;
    }
 
    @Bean
-   public IntegrationFlow fileToRedisQueueFlow(RedisMetadataStore redisMetadataStore,
-                                               RedisMessageStore redisMessageStore) {
+   public MessageChannel fileIntakeChannel() {
+      return new DirectChannel();
+   }
+
+   /**
+    * Full directory scan feeding the intake channel. New files normally arrive
+    * through {@link com.demo.integration.it.service.InboxWatcher}; the scan picks
+    * up anything present at startup or missed by the watcher.
+    */
+   @Bean
+   public IntegrationFlow inboxScanFlow(RedisMetadataStore redisMetadataStore) {
       return IntegrationFlow
               .from(Files.inboundAdapter(new File(properties.getInboxPath()))
                               .filter(compositeFileFilter(redisMetadataStore))
                               .autoCreateDirectory(true)
-                              .useWatchService(true)
                               .ignoreHidden(true),
                       e -> e.poller(Pollers
-                              .fixedDelay(Duration.ofSeconds(5))
-                              .maxMessagesPerPoll(1)
+                              .fixedDelay(Duration.ofMillis(properties.getIngestion().getRescanIntervalMs()))
+                              .maxMessagesPerPoll(-1)
                               .transactional(new TransactionInterceptorBuilder()
                                       .isolation(Isolation.READ_COMMITTED)
                                       .timeout(30).build()
                               )
                               .errorChannel(AppConstants.ERROR_CHANNEL)
                       ))
-              .filter(File.class, fileIntegrityValidator::validateAndStore)
+              .channel(AppConstants.FILE_INTAKE_CHANNEL)
+              .get();
+   }
+
+   @Bean
+   public IntegrationFlow fileToRedisQueueFlow() {
+      int parallelism = Math.max(1, properties.getIngestion().getParallelism());
+
+      IntegrationFlowBuilder flow = IntegrationFlow
+              .from(AppConstants.FILE_INTAKE_CHANNEL)
               .enrichHeaders(h -> h
                       .header(FileHeaders.ORIGINAL_FILE, "payload.absolutePath")
                       .headerExpression("fileName", "payload.name")
                       .header("processingStartTime", Instant.now())
-                      .errorChannel(AppConstants.ERROR_CHANNEL))
-              .handle(excelReadingHandler)
-              .handle(batchSplittingHandler)
-              .split()
-              .handle(batchEnrichmentHandler)
-              .handle(batchWriterHandler)
-              .aggregate(aggregator -> aggregator
-                      .correlationExpression("headers.fileName")
-                      .releaseStrategy(new SimpleSequenceSizeReleaseStrategy())
-                      .groupTimeout(60000)
-                      .sendPartialResultOnExpiry(true)
-                      .outputProcessor(fileAggregationHandler::aggregateBatches)
-//                      .messageStore(redisMessageStore)
-//                      .expireGroupsUponCompletion(true)
-              ).get();
+                      .errorChannel(AppConstants.ERROR_CHANNEL));
+
+      if (parallelism > 1) {
+         // Each file continues on its own worker; failures reach the error channel per file
+         flow.channel(MessageChannels.executor(AppConstants.FILE_PROCESSING_CHANNEL, fileProcessingExecutor));
+      }
+
+      flow.handle(fileIntegrityValidator, "validateAndTag")
+              .enrichHeaders(h -> h.headerFunction(AppConstants.RESUME_AFTER_SEQUENCE_HEADER,
+                      m -> fileCheckpointStore.resume(m.getHeaders().get(AppConstants.FILE_CHECKSUM_HEADER, String.class))));
+
+      if (properties.isStreamingRead()) {
+         flow.handle(excelReadingHandler, "streamExcelFile");
+      } else {
+         flow.handle(excelReadingHandler)
+                 .handle(batchSplittingHandler);
+      }
+
+      flow.split()
+              .handle(batchEnrichmentHandler);
+
+      if (properties.getRedisQueue().isPublishPipelined()) {
+         flow.handle(batchWriterHandler, "pushToRedisPipelined", e -> e.async(true));
+      } else {
+         flow.handle(batchWriterHandler);
+      }
+
+      // Counts published/failed batches per file and finalizes the file; the batches themselves are not kept
+      return flow
+              .handle(fileCompletionTracker, "track")
+              .get();
    }
 
    @Bean
    public CompositeFileListFilter<File> compositeFileFilter(RedisMetadataStore redisMetadataStore) {
       CompositeFileListFilter<File> compositeFilter = new CompositeFileListFilter<>();
       compositeFilter.addFilter(new SimplePatternFileListFilter("*.xlsx"));
-      compositeFilter.addFilter(
-              new FileSystemPersistentAcceptOnceFileListFilter(redisMetadataStore, "file:metadata:")
-      );
+      FileSystemPersistentAcceptOnceFileListFilter acceptOnceFilter =
+              new FileSystemPersistentAcceptOnceFileListFilter(redisMetadataStore, "file:metadata:");
+      compositeFilter.addFilter(acceptOnceFilter);
+      compositeFilter.addFilter(new FileLeaseFilter(fileLeaseManager, acceptOnceFilter));
 
       return compositeFilter;
    }
@@ -1,12 +1,11 @@
 package com.demo.integration.it.flow;
 
 import com.demo.integration.it.config.FileProcessorProperties;
+import com.demo.integration.it.exception.ConcurrencyLimitExceededException;
 import com.demo.integration.it.model.BatchRequest;
 import com.demo.integration.it.model.FailedBatch;
 import com.demo.integration.it.service.FailedBatchService;
 import com.demo.integration.it.service.ResilientUploadService;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import lombok.extern.slf4j.Slf4j;
@@ -19,8 +18,9 @@ import org.springframework.integration.handler.ReactiveMessageHandlerAdapter;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.Scheduler;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -36,16 +36,16 @@ public class RetryFlowConfiguration {
    private final FileProcessorProperties properties;
    private final FailedBatchService failedBatchService;
    private final ResilientUploadService uploadService;
-   private final ObjectMapper objectMapper;
+   private final Scheduler blockingCallScheduler;
 
    public RetryFlowConfiguration(FileProcessorProperties properties,
                                  FailedBatchService failedBatchService,
                                  ResilientUploadService uploadService,
-                                 ObjectMapper objectMapper) {
+                                 Scheduler blockingCallScheduler) {
       this.properties = properties;
       this.failedBatchService = failedBatchService;
       this.uploadService = uploadService;
-      this.objectMapper = objectMapper;
+      this.blockingCallScheduler = blockingCallScheduler;
    }
 
    @Bean
@@ -58,7 +58,7 @@ public class RetryFlowConfiguration {
               .handle(new ReactiveMessageHandlerAdapter(message ->
                       Mono.fromCallable(() ->
                                       failedBatchService.lockAndGetBatchesForRetry(properties.getRetryBatchSize()))
-                              .subscribeOn(Schedulers.boundedElastic())
+                              .subscribeOn(blockingCallScheduler)
                               .doOnNext(batches ->
                                       log.info("Found {} batches ready for retry", batches.size()))
                               .flatMapMany(Flux::fromIterable)
@@ -81,16 +81,16 @@ public class RetryFlowConfiguration {
               failedBatch.getMaxRetries());
 
       return Mono.fromRunnable(() -> failedBatchService.markRetrying(failedBatch))
-              .subscribeOn(Schedulers.boundedElastic())
+              .subscribeOn(blockingCallScheduler)
               .then(Mono.defer(() -> {
                  BatchRequest batch;
                  try {
-                    batch = objectMapper.readValue(failedBatch.getPayload(), BatchRequest.class);
-                 } catch (JsonProcessingException e) {
+                    batch = failedBatchService.readBatch(failedBatch);
+                 } catch (IOException e) {
                     log.error("Failed to deserialize batch: {}", failedBatch.getBatchId(), e);
                     return Mono.fromRunnable(() ->
                             failedBatchService.markFailed(failedBatch, e.getMessage(), "DESERIALIZATION_ERROR")
-                    ).subscribeOn(Schedulers.boundedElastic()).then();
+                    ).subscribeOn(blockingCallScheduler).then();
                  }
 
                  return uploadService.uploadBatch(batch)
@@ -99,11 +99,11 @@ public class RetryFlowConfiguration {
                          })
                          .flatMap(response -> Mono.fromRunnable(() ->
                                  failedBatchService.markSuccess(failedBatch)
-                         ).subscribeOn(Schedulers.boundedElastic()))
+                         ).subscribeOn(blockingCallScheduler))
                          .doOnError(error -> log.error("Failed to upload batch: {}", failedBatch.getBatchId(), error))
                          .onErrorResume(error -> Mono.fromRunnable(() ->
                                  handleUploadError(failedBatch, error)
-                         ).subscribeOn(Schedulers.boundedElastic()).then())
+                         ).subscribeOn(blockingCallScheduler).then())
                          .doFinally(signalType -> {
                             long duration = System.currentTimeMillis() - startTime;
                             log.info("Batch {} processing finished [{}] after {} ms",
@@ -146,6 +146,10 @@ public class RetryFlowConfiguration {
          return "RATE_LIMIT_EXCEEDED";
       }
 
+      if (error instanceof ConcurrencyLimitExceededException) {
+         return "CONCURRENCY_LIMIT_EXCEEDED";
+      }
+
       return "GENERIC_ERROR";
    }
 
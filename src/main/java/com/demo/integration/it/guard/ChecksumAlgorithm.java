@@ -0,0 +1,174 @@
+package com.demo.integration.it.guard;
+
+import net.openhft.hashing.LongTupleHashFunction;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.stream.IntStream;
+
+/*
+ * @created by 16/10/2026  - 21:40
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Digest strategies for file dedup. Checksums are stored as {@code tag:base64};
+ * SHA-256 keeps the untagged format used before algorithms were configurable, so
+ * checksums already in Redis stay valid.
+ * <p>
+ * Files are read through positional {@link FileChannel} reads into a heap buffer
+ * of at most 8 MB rather than memory-mapped, so no mapping outlives the digest.
+ */
+public enum ChecksumAlgorithm {
+
+   /**
+    * SHA-256 over the whole file.
+    */
+   SHA256("sha256") {
+      @Override
+      byte[] digest(FileChannel channel, long size) throws IOException {
+         MessageDigest digest = sha256();
+         ByteBuffer buffer = buffer(size);
+         for (long position = 0; position < size; position += buffer.capacity()) {
+            digest.update(read(channel, position, size, buffer));
+         }
+         return digest.digest();
+      }
+
+      @Override
+      public String format(byte[] digest) {
+         return Base64.getEncoder().encodeToString(digest);
+      }
+   },
+
+   /**
+    * XXH128, several times faster than SHA-256 and plenty for accidental
+    * duplicates; not meant to resist deliberately crafted collisions. Files over
+    * 8 MB are hashed per read chunk, each chunk seeded with the previous chunk's
+    * hash, since the hash function has no streaming form.
+    */
+   XXH128("xxh128") {
+      @Override
+      byte[] digest(FileChannel channel, long size) throws IOException {
+         long[] hash = LongTupleHashFunction.xx128().hashBytes(ByteBuffer.allocate(0));
+         ByteBuffer buffer = buffer(size);
+         for (long position = 0; position < size; position += buffer.capacity()) {
+            ByteBuffer chunk = read(channel, position, size, buffer);
+            hash = position == 0
+                    ? LongTupleHashFunction.xx128().hashBytes(chunk)
+                    : LongTupleHashFunction.xx128(hash[0] ^ hash[1]).hashBytes(chunk);
+         }
+         return ByteBuffer.allocate(16).putLong(hash[0]).putLong(hash[1]).array();
+      }
+   },
+
+   /**
+    * SHA-256 of the SHA-256 digests of 16 MB chunks, hashed in parallel. Only
+    * pays off for files spanning many chunks.
+    */
+   SHA256_TREE("sha256-tree") {
+      @Override
+      byte[] digest(FileChannel channel, long size) {
+         int chunks = (int) Math.max(1, (size + TREE_CHUNK - 1) / TREE_CHUNK);
+         byte[][] leaves = new byte[chunks][];
+
+         IntStream.range(0, chunks).parallel().forEach(i -> {
+            long position = i * TREE_CHUNK;
+            long end = Math.min(position + TREE_CHUNK, size);
+            try {
+               MessageDigest leaf = sha256();
+               ByteBuffer buffer = buffer(end - position);
+               for (long offset = position; offset < end; offset += buffer.capacity()) {
+                  leaf.update(read(channel, offset, end, buffer));
+               }
+               leaves[i] = leaf.digest();
+            } catch (IOException e) {
+               throw new UncheckedIOException(e);
+            }
+         });
+
+         MessageDigest root = sha256();
+         root.update(ByteBuffer.allocate(Long.BYTES).putLong(size).array());
+         for (byte[] leaf : leaves) {
+            root.update(leaf);
+         }
+         return root.digest();
+      }
+   };
+
+   private static final int READ_CHUNK = 8 * 1024 * 1024;
+   private static final long TREE_CHUNK = 16L * 1024 * 1024;
+
+   private final String tag;
+
+   ChecksumAlgorithm(String tag) {
+      this.tag = tag;
+   }
+
+   abstract byte[] digest(FileChannel channel, long size) throws IOException;
+
+   public String checksum(FileChannel channel) throws IOException {
+      return format(digest(channel, channel.size()));
+   }
+
+   public String format(byte[] digest) {
+      return tag + ":" + Base64.getEncoder().encodeToString(digest);
+   }
+
+   public String getTag() {
+      return tag;
+   }
+
+   /**
+    * Algorithm a stored checksum was produced with; untagged values are SHA-256.
+    */
+   public static ChecksumAlgorithm of(String checksum) {
+      int separator = checksum.indexOf(':');
+      if (separator < 0) {
+         return SHA256;
+      }
+      String tag = checksum.substring(0, separator);
+      for (ChecksumAlgorithm algorithm : values()) {
+         if (algorithm.tag.equals(tag)) {
+            return algorithm;
+         }
+      }
+      throw new IllegalArgumentException("Unknown checksum algorithm: " + tag);
+   }
+
+   private static ByteBuffer buffer(long length) {
+      return ByteBuffer.allocate((int) Math.max(1, Math.min(READ_CHUNK, length)));
+   }
+
+   /**
+    * Fills the buffer from {@code position} up to its capacity or {@code end},
+    * whichever comes first, and returns it flipped for reading. Chunks always
+    * start at multiples of the capacity, so chunked hashes do not depend on how
+    * the OS splits reads.
+    */
+   private static ByteBuffer read(FileChannel channel, long position, long end, ByteBuffer buffer) throws IOException {
+      buffer.clear();
+      buffer.limit((int) Math.min(buffer.capacity(), end - position));
+      while (buffer.hasRemaining()) {
+         if (channel.read(buffer, position + buffer.position()) < 0) {
+            throw new EOFException("File shrank while it was being digested");
+         }
+      }
+      return buffer.flip();
+   }
+
+   private static MessageDigest sha256() {
+      try {
+         return MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+         throw new IllegalStateException("SHA-256 not available", e);
+      }
+   }
+}
@@ -0,0 +1,67 @@
+package com.demo.integration.it.guard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/*
+ * @created by 16/10/2026  - 21:05
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Content-addressed duplicate detection. A file is a duplicate if a file with the
+ * same digest was already claimed, whatever its name. Every claim is a SET NX on
+ * the Redis claim key before the file is accepted, so two nodes can never both
+ * take the same content.
+ */
+@Component
+@Slf4j
+public class ContentDeduplicator {
+
+   private static final String CONTENT_PREFIX = "file:content:";
+   private static final Duration CONTENT_TTL = Duration.ofDays(30);
+
+   private static final RedisScript<Long> RELEASE = RedisScript.of("""
+           if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('DEL', KEYS[1])
+           end
+           return 0
+           """, Long.class);
+
+   private final StringRedisTemplate redisTemplate;
+
+   public ContentDeduplicator(StringRedisTemplate redisTemplate) {
+      this.redisTemplate = redisTemplate;
+   }
+
+   /**
+    * Claims the content for this file. Returns {@code false} if the same content
+    * was already claimed, here or on another node.
+    */
+   public boolean claim(String checksum, String fileName) {
+      String key = CONTENT_PREFIX + checksum;
+      if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, fileName, CONTENT_TTL))) {
+         log.debug("Content of {} claimed", fileName);
+         return true;
+      }
+
+      log.warn("File {} has the same content as already claimed file {}",
+              fileName, redisTemplate.opsForValue().get(key));
+      return false;
+   }
+
+   /**
+    * Gives up a claim made for {@code fileName}, so the same content can be
+    * processed again. Claims since taken over by another file are left alone.
+    */
+   public void release(String checksum, String fileName) {
+      redisTemplate.execute(RELEASE, List.of(CONTENT_PREFIX + checksum), fileName);
+      log.info("Released content claim of {}", fileName);
+   }
+}
@@ -1,17 +1,24 @@
 package com.demo.integration.it.guard;
 
+import com.demo.integration.it.config.FileProcessorProperties;
+import com.demo.integration.it.constant.AppConstants;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Duration;
-import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /*
  * @created by 24/10/2025  - 00:52
@@ -23,49 +30,107 @@ import java.util.Base64;
 public class FileIntegrityValidator {
 
    private final RedisTemplate<String, String> redisTemplate;
+   private final ContentDeduplicator contentDeduplicator;
+   private final FileLeaseManager fileLeaseManager;
+   private final FileProcessorProperties properties;
+   private final Map<String, String> checksumCache = Collections.synchronizedMap(
+           new LinkedHashMap<>(256, 0.75f, true) {
+              @Override
+              protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                 return size() > CHECKSUM_CACHE_SIZE;
+              }
+           });
 
-   private static final String CHECKSUM_PREFIX = "file:checksum:";
+   private static final String FINGERPRINT_PREFIX = "file:fingerprint:";
+   private static final int CHECKSUM_CACHE_SIZE = 10_000;
    private static final Duration CHECKSUM_TTL = Duration.ofDays(30);
 
-   public FileIntegrityValidator(RedisTemplate<String, String> redisTemplate) {
+   public FileIntegrityValidator(RedisTemplate<String, String> redisTemplate,
+                                 ContentDeduplicator contentDeduplicator,
+                                 FileLeaseManager fileLeaseManager,
+                                 FileProcessorProperties properties) {
       this.redisTemplate = redisTemplate;
+      this.contentDeduplicator = contentDeduplicator;
+      this.fileLeaseManager = fileLeaseManager;
+      this.properties = properties;
    }
 
-   public String calculateChecksum(File file) throws IOException, NoSuchAlgorithmException {
-      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+   /**
+    * Digests the file with the configured {@link ChecksumAlgorithm} through a
+    * read-only channel. The workbook readers open and read the file again on
+    * their own.
+    */
+   public String calculateChecksum(File file) throws IOException {
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+         return properties.getIngestion().getChecksumAlgorithm().checksum(channel);
+      }
+   }
+
+   /**
+    * Returns the file's checksum, hashing only when its path, size, mtime or file
+    * key (inode) changed since it was last seen by this or any other node. Known
+    * fingerprints are kept in a local LRU and mirrored in Redis so restarts and
+    * other workers skip the hash too.
+    */
+   public String checksumOf(File file) throws IOException {
+      String fingerprint = fingerprint(file);
+      ChecksumAlgorithm algorithm = properties.getIngestion().getChecksumAlgorithm();
 
-      try (FileInputStream fis = new FileInputStream(file)) {
-         byte[] buffer = new byte[8192];
-         int bytesRead;
+      String checksum = checksumCache.get(fingerprint);
+      if (checksum != null && ChecksumAlgorithm.of(checksum) == algorithm) {
+         log.debug("Checksum for {} served from local cache", file.getName());
+         return checksum;
+      }
+
+      checksum = redisTemplate.opsForValue().get(FINGERPRINT_PREFIX + fingerprint);
+      if (checksum != null && ChecksumAlgorithm.of(checksum) == algorithm) {
+         log.debug("Checksum for {} served from Redis", file.getName());
+         checksumCache.put(fingerprint, checksum);
+         return checksum;
+      }
 
-         while ((bytesRead = fis.read(buffer)) != -1) {
-            digest.update(buffer, 0, bytesRead);
-         }
+      checksum = calculateChecksum(file);
+      if (fingerprint.equals(fingerprint(file))) {
+         checksumCache.put(fingerprint, checksum);
+         redisTemplate.opsForValue().set(FINGERPRINT_PREFIX + fingerprint, checksum, CHECKSUM_TTL);
+      } else {
+         log.debug("File {} changed while hashing, not caching its checksum", file.getName());
       }
+      return checksum;
+   }
 
-      byte[] hashBytes = digest.digest();
-      return Base64.getEncoder().encodeToString(hashBytes);
+   private String fingerprint(File file) throws IOException {
+      BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+      return file.getAbsolutePath()
+              + ":" + attributes.size()
+              + ":" + attributes.lastModifiedTime().toMillis()
+              + ":" + attributes.fileKey();
    }
 
    @SneakyThrows
    public boolean validateAndStore(File file) {
-      String checksum = calculateChecksum(file);
-      String key = CHECKSUM_PREFIX + file.getName();
-
-      String existingChecksum = redisTemplate.opsForValue().get(key);
-
-      if (existingChecksum != null) {
-         if (existingChecksum.equals(checksum)) {
-            log.warn("File {} already processed (identical checksum)", file.getName());
-            return false;
-         } else {
-            log.info("File {} has different content (checksum changed)", file.getName());
-         }
-      }
+      return contentDeduplicator.claim(checksumOf(file), file.getName());
+   }
 
-      redisTemplate.opsForValue().set(key, checksum, CHECKSUM_TTL);
-      log.debug("Stored checksum for file {}", file.getName());
+   /**
+    * Same dedup decision as {@link #validateAndStore}, but passes the file on with
+    * its checksum in the {@link AppConstants#FILE_CHECKSUM_HEADER} header so later
+    * stages don't digest it again. Returns {@code null} for duplicates, which ends
+    * the flow for that file and releases its lease.
+    */
+   @SneakyThrows
+   public Message<File> validateAndTag(Message<File> message) {
+      File file = message.getPayload();
+      String checksum = checksumOf(file);
+
+      if (!contentDeduplicator.claim(checksum, file.getName())) {
+         fileLeaseManager.release(file);
+         return null;
+      }
+      fileLeaseManager.attachChecksum(file, checksum);
 
-      return true;
+      return MessageBuilder.fromMessage(message)
+              .setHeader(AppConstants.FILE_CHECKSUM_HEADER, checksum)
+              .build();
    }
 }
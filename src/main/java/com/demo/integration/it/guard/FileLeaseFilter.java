@@ -0,0 +1,48 @@
+package com.demo.integration.it.guard;
+
+import org.springframework.integration.file.filters.FileListFilter;
+import org.springframework.integration.file.filters.ResettableFileListFilter;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/*
+ * @created by 16/10/2026  - 22:40
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Last stage of the inbox filter: keeps only files this pod could lease, trying
+ * the largest first. Files that could not be leased are reset in the accept-once
+ * filter in front of it, so a later scan can take them once capacity frees up.
+ */
+public class FileLeaseFilter implements FileListFilter<File> {
+
+   private final FileLeaseManager leaseManager;
+   private final ResettableFileListFilter<File> acceptOnceFilter;
+
+   public FileLeaseFilter(FileLeaseManager leaseManager, ResettableFileListFilter<File> acceptOnceFilter) {
+      this.leaseManager = leaseManager;
+      this.acceptOnceFilter = acceptOnceFilter;
+   }
+
+   @Override
+   public List<File> filterFiles(File[] files) {
+      File[] bySize = files.clone();
+      Arrays.sort(bySize, Comparator.comparingLong(File::length).reversed());
+
+      List<File> leased = new ArrayList<>();
+      for (File file : bySize) {
+         if (leaseManager.tryAcquire(file)) {
+            leased.add(file);
+         } else {
+            acceptOnceFilter.remove(file);
+         }
+      }
+      return leased;
+   }
+}
@@ -0,0 +1,255 @@
+package com.demo.integration.it.guard;
+
+import com.demo.integration.it.config.FileProcessorProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.integration.redis.metadata.RedisMetadataStore;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+/*
+ * @created by 16/10/2026  - 22:15
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Per-file ownership leases so several producer pods can share one inbox. A pod
+ * processes a file only while it holds {@code file:lease:<path>}, renewed by a
+ * heartbeat. Every lease is also indexed by expiry in a sorted set; when a lease
+ * expires without being released (the pod died mid-file), any pod's sweeper
+ * clears the file's accept-once entry and content claim so the next scan can
+ * pick it up again.
+ * <p>
+ * Each pod takes at most {@code maxInFlightBytes} of files at once, so a pod busy
+ * with large workbooks leaves the remaining files to its peers.
+ * <p>
+ * A lease the heartbeat fails to renew is marked lost. The writer stops publishing
+ * batches of a lost file and the file is left in the inbox for the pod that takes
+ * it over; the mark is cleared when this pod releases the file.
+ */
+@Component
+@Slf4j
+public class FileLeaseManager implements InitializingBean, DisposableBean {
+
+   private static final String LEASE_PREFIX = "file:lease:";
+   private static final String LEASE_INDEX_KEY = "file:lease:index";
+   private static final String LEASE_CONTENT_KEY = "file:lease:content";
+   private static final String ACCEPT_ONCE_PREFIX = "file:metadata:";
+
+   private static final RedisScript<Long> RENEW = RedisScript.of("""
+           if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+           end
+           return 0
+           """, Long.class);
+
+   private static final RedisScript<Long> RELEASE = RedisScript.of("""
+           if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('DEL', KEYS[1])
+           end
+           return 0
+           """, Long.class);
+
+   private final StringRedisTemplate redisTemplate;
+   private final RedisMetadataStore redisMetadataStore;
+   private final ContentDeduplicator contentDeduplicator;
+   private final FileProcessorProperties properties;
+   private final TaskScheduler taskScheduler;
+
+   private final Map<String, Lease> held = new ConcurrentHashMap<>();
+   private final Set<String> lost = ConcurrentHashMap.newKeySet();
+   private long inFlightBytes;
+   private ScheduledFuture<?> heartbeatTask;
+   private ScheduledFuture<?> sweepTask;
+
+   public FileLeaseManager(StringRedisTemplate redisTemplate,
+                           RedisMetadataStore redisMetadataStore,
+                           ContentDeduplicator contentDeduplicator,
+                           FileProcessorProperties properties,
+                           TaskScheduler taskScheduler) {
+      this.redisTemplate = redisTemplate;
+      this.redisMetadataStore = redisMetadataStore;
+      this.contentDeduplicator = contentDeduplicator;
+      this.properties = properties;
+      this.taskScheduler = taskScheduler;
+   }
+
+   @Override
+   public void afterPropertiesSet() {
+      Duration ttl = leaseTtl();
+      heartbeatTask = taskScheduler.scheduleWithFixedDelay(this::heartbeat, ttl.dividedBy(3));
+      sweepTask = taskScheduler.scheduleWithFixedDelay(this::sweep, ttl);
+   }
+
+   /**
+    * Takes the lease on a file unless another pod holds it or this pod's byte
+    * budget is used up. An idle pod always takes at least one file, however large.
+    */
+   public synchronized boolean tryAcquire(File file) {
+      String path = file.getAbsolutePath();
+      if (held.containsKey(path)) {
+         return false;
+      }
+
+      long size = file.length();
+      long budget = properties.getIngestion().getMaxInFlightBytes();
+      if (budget > 0 && !held.isEmpty() && inFlightBytes + size > budget) {
+         log.debug("Leaving {} ({} bytes) to other pods, {} bytes already in flight", file.getName(), size, inFlightBytes);
+         return false;
+      }
+
+      String leaseId = properties.getRedisQueue().getConsumerName() + ":" + UUID.randomUUID();
+      if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LEASE_PREFIX + path, leaseId, leaseTtl()))) {
+         log.debug("File {} is leased by another pod", file.getName());
+         return false;
+      }
+
+      held.put(path, new Lease(leaseId, size));
+      inFlightBytes += size;
+      redisTemplate.opsForZSet().add(LEASE_INDEX_KEY, path, expiryScore());
+      log.info("Leased {} ({} bytes, {} bytes in flight)", file.getName(), size, inFlightBytes);
+      return true;
+   }
+
+   /**
+    * Records the content checksum claimed for a leased file, so the claim can be
+    * released if this pod dies before finishing the file.
+    */
+   public void attachChecksum(File file, String checksum) {
+      String path = file.getAbsolutePath();
+      if (held.containsKey(path)) {
+         redisTemplate.opsForHash().put(LEASE_CONTENT_KEY, path, checksum);
+      }
+   }
+
+   /**
+    * Whether this pod's lease on the file could not be renewed, so another pod may
+    * already be processing it.
+    */
+   public boolean isLost(File file) {
+      return lost.contains(file.getAbsolutePath());
+   }
+
+   public void release(File file) {
+      String path = file.getAbsolutePath();
+      Lease lease;
+      synchronized (this) {
+         lease = held.remove(path);
+         if (lease == null) {
+            return;
+         }
+         inFlightBytes -= lease.size();
+      }
+
+      if (lost.remove(path)) {
+         // The lease index and content entry now belong to whichever pod recovered the file
+         log.debug("Dropped lost lease on {}", file.getName());
+         return;
+      }
+
+      try {
+         redisTemplate.execute(RELEASE, List.of(LEASE_PREFIX + path), lease.id());
+         redisTemplate.opsForZSet().remove(LEASE_INDEX_KEY, path);
+         redisTemplate.opsForHash().delete(LEASE_CONTENT_KEY, path);
+         log.debug("Released lease on {}", file.getName());
+      } catch (Exception e) {
+         log.warn("Failed to release lease on {}, it expires in {}ms", file.getName(), leaseTtl().toMillis(), e);
+      }
+   }
+
+   private void heartbeat() {
+      held.forEach((path, lease) -> {
+         if (lost.contains(path)) {
+            return;
+         }
+         try {
+            Long renewed = redisTemplate.execute(RENEW, List.of(LEASE_PREFIX + path),
+                    lease.id(), String.valueOf(leaseTtl().toMillis()));
+            if (renewed == null || renewed == 0) {
+               lost.add(path);
+               log.error("Lease on {} was lost; aborting the file, another pod may pick it up", path);
+               return;
+            }
+            redisTemplate.opsForZSet().add(LEASE_INDEX_KEY, path, expiryScore());
+         } catch (Exception e) {
+            log.warn("Failed to renew lease on {}", path, e);
+         }
+      });
+   }
+
+   /**
+    * Recovers files whose lease expired without being released. Removing the
+    * index entry first makes exactly one pod perform the recovery.
+    */
+   private void sweep() {
+      try {
+         Set<String> expired = redisTemplate.opsForZSet()
+                 .rangeByScore(LEASE_INDEX_KEY, 0, System.currentTimeMillis());
+         if (expired == null) {
+            return;
+         }
+
+         for (String path : expired) {
+            if (held.containsKey(path) || Boolean.TRUE.equals(redisTemplate.hasKey(LEASE_PREFIX + path))) {
+               continue;
+            }
+            Long removed = redisTemplate.opsForZSet().remove(LEASE_INDEX_KEY, path);
+            if (removed == null || removed == 0) {
+               continue;
+            }
+            recover(path);
+         }
+      } catch (Exception e) {
+         log.error("Failed to sweep expired file leases", e);
+      }
+   }
+
+   private void recover(String path) {
+      File file = new File(path);
+      Object checksum = redisTemplate.opsForHash().get(LEASE_CONTENT_KEY, path);
+
+      if (file.exists()) {
+         if (checksum != null) {
+            contentDeduplicator.release(checksum.toString(), file.getName());
+         }
+         redisMetadataStore.remove(ACCEPT_ONCE_PREFIX + path);
+         log.warn("Lease on {} expired without release; file will be picked up again", file.getName());
+      }
+      redisTemplate.opsForHash().delete(LEASE_CONTENT_KEY, path);
+   }
+
+   private Duration leaseTtl() {
+      return Duration.ofMillis(properties.getIngestion().getLeaseTtlMs());
+   }
+
+   private double expiryScore() {
+      return System.currentTimeMillis() + leaseTtl().toMillis();
+   }
+
+   @Override
+   public void destroy() {
+      // Leases held at shutdown expire and are recovered by the remaining pods
+      if (heartbeatTask != null) {
+         heartbeatTask.cancel(false);
+      }
+      if (sweepTask != null) {
+         sweepTask.cancel(false);
+      }
+   }
+
+   private record Lease(String id, long size) {
+   }
+}
@@ -1,8 +1,10 @@
 package com.demo.integration.it.guard;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -17,12 +19,15 @@ import java.time.Instant;
 public class IdempotencyGuard {
 
    private final RedisTemplate<String, String> redisTemplate;
+   private final ReactiveStringRedisTemplate reactiveRedisTemplate;
 
    private static final String IDEMPOTENCY_PREFIX = "processed:batch:";
    private static final Duration TTL = Duration.ofDays(7);
 
-   public IdempotencyGuard(RedisTemplate<String, String> redisTemplate) {
+   public IdempotencyGuard(RedisTemplate<String, String> redisTemplate,
+                           ReactiveStringRedisTemplate reactiveRedisTemplate) {
       this.redisTemplate = redisTemplate;
+      this.reactiveRedisTemplate = reactiveRedisTemplate;
    }
 
    public boolean markAsProcessed(String batchId) {
@@ -40,6 +45,21 @@ public class IdempotencyGuard {
       }
    }
 
+   public Mono<Boolean> markAsProcessedReactive(String batchId) {
+      String key = IDEMPOTENCY_PREFIX + batchId;
+
+      return reactiveRedisTemplate.opsForValue()
+              .setIfAbsent(key, Instant.now().toString(), TTL)
+              .map(Boolean.TRUE::equals)
+              .doOnNext(firstTime -> {
+                 if (firstTime) {
+                    log.debug("Batch {} marked as processed (first time)", batchId);
+                 } else {
+                    log.warn("Batch {} already processed (duplicate detected)", batchId);
+                 }
+              });
+   }
+
    public boolean wasAlreadyProcessed(String batchId) {
       String key = IDEMPOTENCY_PREFIX + batchId;
       return redisTemplate.hasKey(key);
@@ -50,4 +70,11 @@ public class IdempotencyGuard {
       redisTemplate.delete(key);
       log.info("Cleared processed flag for batch {}", batchId);
    }
+
+   public Mono<Void> clearProcessedFlagReactive(String batchId) {
+      String key = IDEMPOTENCY_PREFIX + batchId;
+      return reactiveRedisTemplate.delete(key)
+              .doOnSuccess(deleted -> log.info("Cleared processed flag for batch {}", batchId))
+              .then();
+   }
 }
@@ -1,5 +1,7 @@
 package com.demo.integration.it.handler;
 
+import com.demo.integration.it.config.FileProcessorProperties;
+import com.demo.integration.it.constant.AppConstants;
 import com.demo.integration.it.model.BatchRequest;
 import com.demo.integration.it.model.OrderRecord;
 import lombok.extern.slf4j.Slf4j;
@@ -8,6 +10,7 @@ import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
@@ -21,15 +24,28 @@ import java.util.UUID;
 @Slf4j
 public class BatchEnrichmentHandler {
 
+   private final FileProcessorProperties properties;
+
+   public BatchEnrichmentHandler(FileProcessorProperties properties) {
+      this.properties = properties;
+   }
+
    @Transformer
    public BatchRequest createBatchRequest(
            @Payload List<OrderRecord> records,
            @Header("fileName") String fileName,
-           @Header(value = "sequenceNumber", required = false) Integer sequenceNumber) {
+           @Header(value = "sequenceNumber", required = false) Integer sequenceNumber,
+           @Header(value = AppConstants.FILE_CHECKSUM_HEADER, required = false) String checksum) {
 
       BatchRequest batch = new BatchRequest();
-      batch.setBatchId(UUID.randomUUID().toString());
-      batch.setRequestId(UUID.randomUUID().toString());
+      if (properties.getIngestion().isDeterministicBatchIds() && checksum != null && sequenceNumber != null) {
+         int batchSize = properties.getBatchSize();
+         batch.setBatchId(derivedId(checksum, batchSize, sequenceNumber, "batch"));
+         batch.setRequestId(derivedId(checksum, batchSize, sequenceNumber, "request"));
+      } else {
+         batch.setBatchId(UUID.randomUUID().toString());
+         batch.setRequestId(UUID.randomUUID().toString());
+      }
       batch.setTimestamp(Instant.now());
       batch.setSourceFileName(fileName);
       batch.setRecords(records);
@@ -39,4 +55,15 @@ public class BatchEnrichmentHandler {
 
       return batch;
    }
-}
\ No newline at end of file
+
+   /**
+    * Name-based UUID of the file content and batch position, so every attempt at
+    * the same content yields the same IDs and {@link com.demo.integration.it.guard.IdempotencyGuard}
+    * recognises batches that were already uploaded. The batch size is part of the
+    * name: with a different size the same sequence holds different rows.
+    */
+   private static String derivedId(String checksum, int batchSize, int sequenceNumber, String kind) {
+      String name = checksum + ":" + batchSize + ":" + sequenceNumber + ":" + kind;
+      return UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)).toString();
+   }
+}
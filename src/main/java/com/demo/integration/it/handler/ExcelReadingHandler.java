@@ -1,15 +1,22 @@
 package com.demo.integration.it.handler;
 
+import com.demo.integration.it.config.FileProcessorProperties;
+import com.demo.integration.it.constant.AppConstants;
 import com.demo.integration.it.exception.ExcelParsingException;
 import com.demo.integration.it.model.OrderRecord;
+import com.demo.integration.it.service.ExcelBatchIterator;
 import com.demo.integration.it.service.FastExcelReaderService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.integration.annotation.ServiceActivator;
 import org.springframework.integration.file.FileHeaders;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
+import java.io.Closeable;
 import java.io.File;
+import java.util.Iterator;
 import java.util.List;
 
 /*
@@ -23,11 +30,14 @@ public class ExcelReadingHandler {
 
    private final FastExcelReaderService excelReader;
    private final FileMovementHandler fileMovementHandler;
+   private final FileProcessorProperties properties;
 
    public ExcelReadingHandler(FastExcelReaderService excelReader,
-                              FileMovementHandler fileMovementHandler) {
+                              FileMovementHandler fileMovementHandler,
+                              FileProcessorProperties properties) {
       this.excelReader = excelReader;
       this.fileMovementHandler = fileMovementHandler;
+      this.properties = properties;
    }
 
    @ServiceActivator
@@ -53,4 +63,69 @@ public class ExcelReadingHandler {
          throw new ExcelParsingException("Excel parsing failed for " + file.getName(), e);
       }
    }
+
+   /**
+    * Streaming counterpart of {@link #readExcelFile}: returns a lazy iterator of
+    * record batches for the splitter instead of the whole sheet. The total batch
+    * count is only known once the sheet is exhausted, so it is carried on the
+    * final batch in the {@link AppConstants#BATCH_TOTAL_HEADER} header. Batches up
+    * to the file's checkpoint are passed on empty.
+    */
+   public Iterator<Message<List<OrderRecord>>> streamExcelFile(File file,
+                                                               @Header(value = FileHeaders.FILENAME, required = false) String filename,
+                                                               @Header(value = AppConstants.RESUME_AFTER_SEQUENCE_HEADER, required = false) Integer resumeAfter,
+                                                               @Header("id") String id) {
+      log.info("Streaming Excel file {}, corrId={}", filename, id);
+
+      ExcelBatchIterator batches;
+      try {
+         batches = excelReader.openBatchIterator(file, properties.getBatchSize());
+         if (resumeAfter != null) {
+            batches.skipBatches(resumeAfter);
+         }
+
+         if (!batches.hasNext()) {
+            throw new IllegalStateException("No records found in file: " + file.getName());
+         }
+      } catch (Exception e) {
+         log.error("Failed to read Excel file: {}", file.getName(), e);
+         fileMovementHandler.moveToError(file);
+         throw new ExcelParsingException("Excel parsing failed for " + file.getName(), e);
+      }
+
+      return new BatchMessageIterator(batches, file.getName());
+   }
+
+   private static final class BatchMessageIterator implements Iterator<Message<List<OrderRecord>>>, Closeable {
+
+      private final ExcelBatchIterator batches;
+      private final String fileName;
+
+      private BatchMessageIterator(ExcelBatchIterator batches, String fileName) {
+         this.batches = batches;
+         this.fileName = fileName;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return batches.hasNext();
+      }
+
+      @Override
+      public Message<List<OrderRecord>> next() {
+         List<OrderRecord> batch = batches.next();
+         MessageBuilder<List<OrderRecord>> builder = MessageBuilder.withPayload(batch);
+
+         if (batches.isExhausted()) {
+            log.info("Finished streaming {} batches from {}", batches.getBatchCount(), fileName);
+            builder.setHeader(AppConstants.BATCH_TOTAL_HEADER, batches.getBatchCount());
+         }
+         return builder.build();
+      }
+
+      @Override
+      public void close() {
+         batches.close();
+      }
+   }
 }
@@ -1,11 +1,8 @@
 package com.demo.integration.it.handler;
 
+import com.demo.integration.it.service.FileCheckpointStore;
+import com.demo.integration.it.service.FileCompletionTracker;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.integration.IntegrationMessageHeaderAccessor;
-import org.springframework.integration.annotation.Aggregator;
-import org.springframework.integration.file.FileHeaders;
-import org.springframework.integration.store.MessageGroup;
-import org.springframework.messaging.MessageHeaders;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
@@ -20,28 +17,39 @@ import java.io.File;
 public class FileAggregationHandler {
 
    private final FileMovementHandler fileMovementHandler;
+   private final FileCheckpointStore checkpointStore;
 
-   public FileAggregationHandler(FileMovementHandler fileMovementHandler) {
+   public FileAggregationHandler(FileMovementHandler fileMovementHandler, FileCheckpointStore checkpointStore) {
       this.fileMovementHandler = fileMovementHandler;
+      this.checkpointStore = checkpointStore;
    }
 
-   @Aggregator
-   public String aggregateBatches(MessageGroup msgGroup) {
-      if (msgGroup.size() == 0) return "No batches processed";
+   /**
+    * Moves a file to processed once all of its batches were published, or to
+    * error if any failed or never arrived. Called by {@link FileCompletionTracker}.
+    */
+   public String finalizeFile(FileCompletionTracker.Completion completion) {
+      File originalFile = completion.originalFile();
+      String fileName = completion.fileName();
+      Integer expectedSize = completion.expected();
 
-      MessageHeaders headers = msgGroup.getOne().getHeaders();
-      File originalFile = (File) headers.get(FileHeaders.ORIGINAL_FILE);
-      String fileName = (String) headers.get("fileName");
-      Integer expectedSize = (Integer) headers.get(IntegrationMessageHeaderAccessor.SEQUENCE_SIZE);
-
-      boolean isComplete = (expectedSize != null && msgGroup.size() == expectedSize);
+      boolean isComplete = completion.isComplete();
       if (!isComplete) {
-         log.warn("Incomplete batch set for file: {}. Expected: {}, Received: {}",
-                 fileName, expectedSize, msgGroup.size());
+         log.warn("Incomplete batch set for file: {}. Expected: {}, Published: {}, Failed: {}",
+                 fileName, expectedSize, completion.published(), completion.failed());
       }
 
       log.info("Aggregated {} batches for file: {} (complete: {})",
-              msgGroup.size(), fileName, isComplete);
+              completion.received(), fileName, isComplete);
+
+      String checksum = completion.checksum();
+      if (checksum != null) {
+         if (isComplete) {
+            checkpointStore.complete(checksum);
+         } else {
+            checkpointStore.abandon(checksum);
+         }
+      }
 
       if (originalFile != null) {
          try {
@@ -51,8 +59,8 @@ public class FileAggregationHandler {
             } else {
                log.error("One or more batches failed for file: {}", originalFile.getName());
                fileMovementHandler.moveToError(originalFile);
-               return String.format("File incomplete: %s (%d/%d batches)",
-                       originalFile.getName(), msgGroup.size(), expectedSize);
+               return String.format("File incomplete: %s (%d/%s batches)",
+                       originalFile.getName(), completion.published(), expectedSize);
             }
          } catch (Exception e) {
             log.error("Failed to move file: {}", originalFile.getName(), e);
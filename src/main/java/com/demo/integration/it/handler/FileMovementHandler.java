@@ -1,6 +1,7 @@
 package com.demo.integration.it.handler;
 
 import com.demo.integration.it.config.FileProcessorProperties;
+import com.demo.integration.it.guard.FileLeaseManager;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -20,12 +21,17 @@ import java.nio.file.StandardCopyOption;
 @Slf4j
 public class FileMovementHandler {
    private final FileProcessorProperties properties;
+   private final FileLeaseManager fileLeaseManager;
 
-   public FileMovementHandler(FileProcessorProperties properties) {
+   public FileMovementHandler(FileProcessorProperties properties, FileLeaseManager fileLeaseManager) {
       this.properties = properties;
+      this.fileLeaseManager = fileLeaseManager;
    }
 
    public void moveToProcessed(File file) {
+      if (leftToNewOwner(file)) {
+         return;
+      }
       try {
          Path source = file.toPath();
          Path target = Paths.get(properties.getProcessedPath(), file.getName());
@@ -34,10 +40,15 @@ public class FileMovementHandler {
          log.info("Moved to processed: {}", file.getName());
       } catch (IOException e) {
          log.error("Failed to move file to processed", e);
+      } finally {
+         fileLeaseManager.release(file);
       }
    }
 
    public void moveToError(File file) {
+      if (leftToNewOwner(file)) {
+         return;
+      }
       try {
          Path source = file.toPath();
          Path target = Paths.get(properties.getErrorPath(), file.getName());
@@ -46,6 +57,21 @@ public class FileMovementHandler {
          log.error("Moved to error: {}", file.getName());
       } catch (IOException e) {
          log.error("Failed to move file to error", e);
+      } finally {
+         fileLeaseManager.release(file);
+      }
+   }
+
+   /**
+    * A file whose lease was lost may already be processed by another pod, so it is
+    * not moved out of the inbox; only this pod's lease bookkeeping is dropped.
+    */
+   private boolean leftToNewOwner(File file) {
+      if (!fileLeaseManager.isLost(file)) {
+         return false;
       }
+      log.warn("Lease on {} was lost, leaving the file to the pod that took it over", file.getName());
+      fileLeaseManager.release(file);
+      return true;
    }
 }
@@ -1,17 +1,15 @@
 package com.demo.integration.it.handler;
 
-import com.demo.integration.it.config.FileProcessorProperties;
+import com.demo.integration.it.constant.AppConstants;
+import com.demo.integration.it.exception.ConcurrencyLimitExceededException;
 import com.demo.integration.it.guard.GracefulShutdownManager;
 import com.demo.integration.it.guard.IdempotencyGuard;
 import com.demo.integration.it.model.BatchRequest;
 import com.demo.integration.it.service.FailedBatchService;
 import com.demo.integration.it.service.ResilientUploadService;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.SneakyThrows;
+import com.demo.integration.it.service.StreamAcknowledger;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.connection.stream.RecordId;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.integration.acks.AcknowledgmentCallback;
 import org.springframework.integration.annotation.ServiceActivator;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.messaging.Message;
@@ -19,6 +17,8 @@ import org.springframework.messaging.MessageHandlingException;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 /*
  * @created by 24/10/2025  - 00:50
@@ -33,23 +33,21 @@ public class HttpUploadHandler {
    private final FailedBatchService failedBatchService;
    private final IdempotencyGuard idempotencyGuard;
    private final GracefulShutdownManager shutdownManager;
-   private final StringRedisTemplate stringRedisTemplate;
-   private final FileProcessorProperties properties;
-   private final ObjectMapper objectMapper;
+   private final StreamAcknowledger streamAcknowledger;
+   private final Scheduler blockingCallScheduler;
 
    public HttpUploadHandler(ResilientUploadService uploadService,
                             FailedBatchService failedBatchService,
                             IdempotencyGuard idempotencyGuard,
                             GracefulShutdownManager shutdownManager,
-                            StringRedisTemplate stringRedisTemplate,
-                            FileProcessorProperties properties, ObjectMapper objectMapper) {
+                            StreamAcknowledger streamAcknowledger,
+                            Scheduler blockingCallScheduler) {
       this.uploadService = uploadService;
       this.failedBatchService = failedBatchService;
       this.idempotencyGuard = idempotencyGuard;
       this.shutdownManager = shutdownManager;
-      this.stringRedisTemplate = stringRedisTemplate;
-      this.properties = properties;
-      this.objectMapper = objectMapper;
+      this.streamAcknowledger = streamAcknowledger;
+      this.blockingCallScheduler = blockingCallScheduler;
    }
 
    @ServiceActivator
@@ -82,13 +80,7 @@ public class HttpUploadHandler {
          log.error("Failed to upload batch: {}", batch.getBatchId(), e);
 
          idempotencyGuard.clearProcessedFlag(batch.getBatchId());
-         if (e instanceof WebClientResponseException wcr) {
-            failedBatchService.logFailedBatch(batch, wcr.getMessage(), String.valueOf(wcr.getStatusCode().value()));
-         } else if (e instanceof WebClientRequestException wrq) {
-            failedBatchService.logFailedBatch(batch, wrq.getMessage(), "NETWORK_ERROR");
-         } else {
-            failedBatchService.logFailedBatch(batch, e.getMessage(), "UNKNOWN_ERROR");
-         }
+         logFailedBatch(batch, e);
          acknowledge(message);
          throw new MessageHandlingException(message, "Upload failed", e);
       } finally {
@@ -96,11 +88,74 @@ public class HttpUploadHandler {
       }
    }
 
-   @SneakyThrows
-   private void acknowledge(Message<BatchRequest> message) {
-//      String recordId = (String) message.getHeaders().get("redis_streamMessageId");
+   /**
+    * Non-blocking counterpart of {@link #uploadBatch}. Never signals an error:
+    * failures are recorded in the failed-batch table and the message is still
+    * emitted so that {@link #acknowledgeReactive} can acknowledge it.
+    */
+   public Mono<Message<?>> uploadBatchReactive(Message<?> message) {
+      BatchRequest batch = (BatchRequest) message.getPayload();
+
+      return Mono.defer(() -> {
+                 shutdownManager.incrementInFlight();
+                 return idempotencyGuard.markAsProcessedReactive(batch.getBatchId());
+              })
+              .flatMap(firstTime -> {
+                 if (!firstTime) {
+                    log.info("Skipping duplicate batch: {}", batch.getBatchId());
+                    return Mono.<Message<?>>just(message);
+                 }
+
+                 log.info("Uploading batch: {}", batch.getBatchId());
+                 return uploadService.uploadBatch(batch)
+                         .doOnSuccess(response -> log.info("Successfully uploaded batch: {}", batch.getBatchId()))
+                         .<Message<?>>thenReturn(message)
+                         .onErrorResume(e -> recordFailureReactive(batch, e).thenReturn(message));
+              })
+              .onErrorResume(e -> {
+                 log.error("Unexpected error while uploading batch: {}", batch.getBatchId(), e);
+                 return Mono.just(message);
+              })
+              .doFinally(signal -> shutdownManager.decrementInFlight());
+   }
+
+   /**
+    * Queues the entry ID on the {@link StreamAcknowledger} and completes right
+    * away. The XACK itself happens later, on the acknowledger's batched flush.
+    */
+   public Mono<Void> acknowledgeReactive(Message<?> message) {
+      return Mono.fromRunnable(() -> acknowledge(message));
+   }
+
+   private Mono<Void> recordFailureReactive(BatchRequest batch, Throwable error) {
+      log.error("Failed to upload batch: {}", batch.getBatchId(), error);
+
+      return idempotencyGuard.clearProcessedFlagReactive(batch.getBatchId())
+              .then(Mono.fromRunnable(() -> logFailedBatch(batch, error))
+                      .subscribeOn(blockingCallScheduler))
+              .onErrorResume(e -> {
+                 log.error("Failed to record failed batch: {}", batch.getBatchId(), e);
+                 return Mono.empty();
+              })
+              .then();
+   }
+
+   private void logFailedBatch(BatchRequest batch, Throwable e) {
+      if (e instanceof WebClientResponseException wcr) {
+         failedBatchService.logFailedBatch(batch, wcr.getMessage(), String.valueOf(wcr.getStatusCode().value()));
+      } else if (e instanceof WebClientRequestException wrq) {
+         failedBatchService.logFailedBatch(batch, wrq.getMessage(), "NETWORK_ERROR");
+      } else if (e instanceof ConcurrencyLimitExceededException cle) {
+         failedBatchService.logFailedBatch(batch, cle.getMessage(), "CONCURRENCY_LIMIT_EXCEEDED");
+      } else {
+         failedBatchService.logFailedBatch(batch, e.getMessage(), "UNKNOWN_ERROR");
+      }
+   }
+
+   private void acknowledge(Message<?> message) {
       RecordId recordId = (RecordId) message.getHeaders().get("redis_streamMessageId");
-      stringRedisTemplate.opsForStream().acknowledge(properties.getRedisQueue().getStreamKey(), properties.getRedisQueue().getConsumerGroup(), recordId);
-      log.info("Acknowledged Redis record ID: {}", recordId);
+      streamAcknowledger.acknowledge(recordId,
+              message.getHeaders().get(AppConstants.CLAIM_CHECK_KEY_HEADER, String.class));
+      log.debug("Queued Redis record ID {} for acknowledgement", recordId);
    }
 }
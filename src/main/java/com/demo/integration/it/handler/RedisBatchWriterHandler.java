@@ -1,21 +1,29 @@
 package com.demo.integration.it.handler;
 
+import com.demo.integration.it.codec.BatchPayloadCodecs;
 import com.demo.integration.it.config.FileProcessorProperties;
 import com.demo.integration.it.constant.AppConstants;
+import com.demo.integration.it.guard.FileLeaseManager;
 import com.demo.integration.it.model.BatchRequest;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.demo.integration.it.service.ClaimCheckStore;
+import com.demo.integration.it.service.FileCheckpointStore;
+import com.demo.integration.it.service.RedisStreamPublisher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.connection.stream.RecordId;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
 import org.springframework.integration.annotation.ServiceActivator;
+import org.springframework.integration.file.FileHeaders;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 
+import java.io.File;
+import java.io.IOException;
 import java.time.Instant;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /*
  * @created by 24/10/2025  - 14:37
@@ -26,42 +34,136 @@ import java.util.Map;
 @Slf4j
 @RequiredArgsConstructor
 public class RedisBatchWriterHandler {
-   private final ObjectMapper objectMapper;
-   private final StringRedisTemplate redisTemplate;
+   private static final String LEASE_LOST = "File lease lost";
+
+   private final BatchPayloadCodecs payloadCodecs;
+   private final RedisTemplate<String, byte[]> streamRedisTemplate;
    private final FileProcessorProperties properties;
+   private final RedisStreamPublisher streamPublisher;
+   private final FileCheckpointStore checkpointStore;
+   private final ClaimCheckStore claimCheckStore;
+   private final FileLeaseManager fileLeaseManager;
 
    @ServiceActivator
    public Message<BatchRequest> pushToRedis(Message<BatchRequest> message) {
       BatchRequest batch = message.getPayload();
-      boolean success = false;
+      if (alreadyPublished(message)) {
+         return skipped(message);
+      }
+      if (leaseLost(message)) {
+         return failed(message, LEASE_LOST);
+      }
       String errorMessage;
 
       try {
-         String json = objectMapper.writeValueAsString(batch);
-         RecordId recordId = redisTemplate.opsForStream().add(
+         Map<String, byte[]> entry = claimCheckStore.checkIn(batch.getBatchId(), payloadCodecs.encode(batch));
+         RecordId recordId = streamRedisTemplate.opsForStream().add(
                  properties.getRedisQueue().getStreamKey(),
-                 Map.of("batch", json)
+                 entry
          );
 
          log.info("Pushed batch {} to Redis queue with ID: {}", batch.getBatchId(), recordId);
-         success = true;
-         return MessageBuilder
-                 .withPayload(batch)
-                 .copyHeaders(message.getHeaders())
-                 .setHeader(AppConstants.BATCH_FAILED_HEADER, false)
-                 .build();
-      } catch (JsonProcessingException e) {
-         log.error("Failed to serialize batch to JSON: {}", batch.getBatchId(), e);
+         checkpoint(message);
+         return published(message, recordId);
+      } catch (IOException e) {
+         log.error("Failed to encode batch: {}", batch.getBatchId(), e);
          errorMessage = e.getMessage();
       } catch (Exception e) {
          log.error("Failed to push batch {} to Redis", batch.getBatchId(), e);
          errorMessage = e.getMessage();
       }
 
+      return failed(message, errorMessage);
+   }
+
+   public CompletableFuture<Message<BatchRequest>> pushToRedisPipelined(Message<BatchRequest> message) {
+      BatchRequest batch = message.getPayload();
+      if (alreadyPublished(message)) {
+         return CompletableFuture.completedFuture(skipped(message));
+      }
+      if (leaseLost(message)) {
+         return CompletableFuture.completedFuture(failed(message, LEASE_LOST));
+      }
+
+      ClaimCheckStore.Prepared entry;
+      try {
+         entry = claimCheckStore.prepare(batch.getBatchId(), payloadCodecs.encode(batch));
+      } catch (IOException e) {
+         log.error("Failed to encode batch: {}", batch.getBatchId(), e);
+         return CompletableFuture.completedFuture(failed(message, e.getMessage()));
+      }
+
+      return streamPublisher.publish(batch.getSourceFileName(), entry)
+              .handle((recordId, error) -> {
+                 if (error != null) {
+                    log.error("Failed to push batch {} to Redis", batch.getBatchId(), error);
+                    return failed(message, error.getMessage());
+                 }
+                 log.info("Pushed batch {} to Redis queue with ID: {}", batch.getBatchId(), recordId);
+                 checkpoint(message);
+                 return published(message, recordId);
+              });
+   }
+
+   /**
+    * Whether this batch was published by an earlier attempt at the same file, up
+    * to the checkpoint the attempt reached.
+    */
+   private boolean alreadyPublished(Message<BatchRequest> message) {
+      Integer resumeAfter = message.getHeaders().get(AppConstants.RESUME_AFTER_SEQUENCE_HEADER, Integer.class);
+      return resumeAfter != null && new IntegrationMessageHeaderAccessor(message).getSequenceNumber() <= resumeAfter;
+   }
+
+   /**
+    * Whether this pod lost the lease on the batch's file. Its remaining batches
+    * are failed without an XADD, since the pod that took the file over publishes
+    * them itself.
+    */
+   private boolean leaseLost(Message<BatchRequest> message) {
+      Object originalFile = message.getHeaders().get(FileHeaders.ORIGINAL_FILE);
+      if (originalFile == null) {
+         return false;
+      }
+      File file = originalFile instanceof File f ? f : new File(originalFile.toString());
+      boolean lost = fileLeaseManager.isLost(file);
+      if (lost) {
+         log.warn("Not publishing batch {} of {}, the file lease was lost",
+                 message.getPayload().getBatchId(), message.getPayload().getSourceFileName());
+      }
+      return lost;
+   }
+
+   private void checkpoint(Message<BatchRequest> message) {
+      String checksum = message.getHeaders().get(AppConstants.FILE_CHECKSUM_HEADER, String.class);
+      if (checksum != null) {
+         checkpointStore.markPublished(checksum, new IntegrationMessageHeaderAccessor(message).getSequenceNumber());
+      }
+   }
+
+   private Message<BatchRequest> skipped(Message<BatchRequest> message) {
+      log.debug("Skipping batch {} of {}, published before the last checkpoint",
+              new IntegrationMessageHeaderAccessor(message).getSequenceNumber(), message.getPayload().getSourceFileName());
+      return MessageBuilder
+              .withPayload(message.getPayload())
+              .copyHeaders(message.getHeaders())
+              .setHeader(AppConstants.BATCH_FAILED_HEADER, false)
+              .build();
+   }
+
+   private Message<BatchRequest> published(Message<BatchRequest> message, RecordId recordId) {
+      return MessageBuilder
+              .withPayload(message.getPayload())
+              .copyHeaders(message.getHeaders())
+              .setHeader(AppConstants.BATCH_FAILED_HEADER, false)
+              .setHeader(AppConstants.BATCH_RECORD_ID_HEADER, recordId)
+              .build();
+   }
+
+   private Message<BatchRequest> failed(Message<BatchRequest> message, String errorMessage) {
       return MessageBuilder
-              .withPayload(batch)
+              .withPayload(message.getPayload())
               .copyHeaders(message.getHeaders())
-              .setHeader(AppConstants.BATCH_FAILED_HEADER, !success)
+              .setHeader(AppConstants.BATCH_FAILED_HEADER, true)
               .setHeader(AppConstants.BATCH_ERROR_HEADER, errorMessage)
               .setHeader(AppConstants.BATCH_PUBLISH_TIME_HEADER, Instant.now())
               .build();
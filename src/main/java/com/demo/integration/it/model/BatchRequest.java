@@ -1,9 +1,11 @@
 package com.demo.integration.it.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.Instant;
 import java.util.List;
@@ -25,4 +27,17 @@ public class BatchRequest {
 
    private String sourceFileName;
    private List<OrderRecord> records;
+
+   /**
+    * The batch as JSON, exactly as read from the stream, when only the envelope
+    * was decoded. Records are then left null and this is uploaded as-is.
+    */
+   @JsonIgnore
+   @ToString.Exclude
+   private transient byte[] rawJson;
+
+   public BatchRequest(String batchId, String requestId, Instant timestamp, String sourceFileName,
+                       List<OrderRecord> records) {
+      this(batchId, requestId, timestamp, sourceFileName, records, null);
+   }
 }
@@ -0,0 +1,264 @@
+package com.demo.integration.it.service;
+
+import com.demo.integration.it.config.FileProcessorProperties;
+import com.demo.integration.it.exception.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ConnectTimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/*
+ * @created by 16/10/2026  - 17:30
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * AIMD concurrency limit for upload calls. Latencies and overload signals
+ * (429/503, read and connect timeouts) are collected per window of calls; at the
+ * end of each window the limit grows by one if p99 latency and the overload rate
+ * are under their thresholds and the limit was actually used, and is multiplied
+ * by the backoff ratio otherwise. Calls over the limit wait in a bounded queue
+ * instead of being rejected straight away.
+ */
+@Service
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+   private static final int WAITING = 0;
+   private static final int GRANTED = 1;
+   private static final int CANCELLED = 2;
+
+   private final FileProcessorProperties.AdaptiveConcurrency config;
+   private final ReentrantLock lock = new ReentrantLock();
+   private final Deque<Waiter> waiters = new ArrayDeque<>();
+   private final long[] windowLatencies;
+
+   private final Counter rejections;
+   private final Counter overloads;
+   private final Timer latency;
+
+   private double limit;
+   private int inFlight;
+   private int maxInFlightInWindow;
+   private int windowSamples;
+   private int windowOverloads;
+
+   public AdaptiveConcurrencyLimiter(FileProcessorProperties properties, MeterRegistry meterRegistry) {
+      this.config = properties.getAdaptiveConcurrency();
+      this.limit = config.getInitialLimit();
+      this.windowLatencies = new long[config.getWindowSize()];
+
+      Gauge.builder("upload.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+              .register(meterRegistry);
+      Gauge.builder("upload.concurrency.in_flight", this, AdaptiveConcurrencyLimiter::getInFlight)
+              .register(meterRegistry);
+      Gauge.builder("upload.concurrency.queued", this, AdaptiveConcurrencyLimiter::getQueued)
+              .register(meterRegistry);
+      this.rejections = meterRegistry.counter("upload.concurrency.rejections");
+      this.overloads = meterRegistry.counter("upload.concurrency.overloads");
+      this.latency = Timer.builder("upload.concurrency.latency")
+              .publishPercentiles(0.5, 0.99)
+              .register(meterRegistry);
+   }
+
+   public <T> Mono<T> execute(Supplier<Mono<T>> call) {
+      return acquire().then(Mono.defer(() -> {
+         long start = System.nanoTime();
+         AtomicBoolean overloaded = new AtomicBoolean();
+
+         return call.get()
+                 .doOnError(error -> overloaded.set(isOverload(error)))
+                 .doFinally(signal -> release(System.nanoTime() - start, overloaded.get(),
+                         signal == SignalType.CANCEL));
+      }));
+   }
+
+   private Mono<Void> acquire() {
+      return Mono.<Void>create(sink -> {
+                 Waiter waiter = new Waiter(sink);
+                 boolean granted = false;
+                 lock.lock();
+                 try {
+                    if (inFlight < currentLimit()) {
+                       granted = grant(waiter);
+                    } else if (waiters.size() < config.getMaxQueued()) {
+                       waiters.addLast(waiter);
+                    } else {
+                       rejections.increment();
+                       sink.error(new ConcurrencyLimitExceededException(
+                               "Upload queue full (%d waiting, limit %d)".formatted(waiters.size(), currentLimit())));
+                       return;
+                    }
+                 } finally {
+                    lock.unlock();
+                 }
+
+                 sink.onCancel(() -> abandon(waiter));
+                 if (granted) {
+                    sink.success();
+                 }
+              })
+              .timeout(Duration.ofMillis(config.getMaxWaitMs()), Mono.defer(() -> {
+                 rejections.increment();
+                 return Mono.error(new ConcurrencyLimitExceededException(
+                         "No upload permit within %d ms".formatted(config.getMaxWaitMs())));
+              }));
+   }
+
+   private boolean grant(Waiter waiter) {
+      if (!waiter.state.compareAndSet(WAITING, GRANTED)) {
+         return false;
+      }
+      inFlight++;
+      maxInFlightInWindow = Math.max(maxInFlightInWindow, inFlight);
+      return true;
+   }
+
+   private void abandon(Waiter waiter) {
+      List<Waiter> granted;
+      lock.lock();
+      try {
+         if (waiter.state.compareAndSet(WAITING, CANCELLED)) {
+            waiters.remove(waiter);
+            return;
+         }
+         if (!waiter.state.compareAndSet(GRANTED, CANCELLED)) {
+            return;
+         }
+         // Permit was handed out but never used
+         inFlight--;
+         granted = grantWaiting();
+      } finally {
+         lock.unlock();
+      }
+      granted.forEach(next -> next.sink.success());
+   }
+
+   private void release(long elapsedNanos, boolean overloaded, boolean cancelled) {
+      latency.record(elapsedNanos, TimeUnit.NANOSECONDS);
+      if (overloaded) {
+         overloads.increment();
+      }
+
+      List<Waiter> granted;
+      lock.lock();
+      try {
+         inFlight--;
+
+         if (!cancelled) {
+            windowLatencies[windowSamples++] = elapsedNanos;
+            if (overloaded) {
+               windowOverloads++;
+            }
+            if (windowSamples == windowLatencies.length) {
+               adjustLimit();
+            }
+         }
+
+         granted = grantWaiting();
+      } finally {
+         lock.unlock();
+      }
+      granted.forEach(next -> next.sink.success());
+   }
+
+   private List<Waiter> grantWaiting() {
+      List<Waiter> granted = new ArrayList<>();
+      while (inFlight < currentLimit() && !waiters.isEmpty()) {
+         Waiter next = waiters.pollFirst();
+         if (grant(next)) {
+            granted.add(next);
+         }
+      }
+      return granted;
+   }
+
+   private void adjustLimit() {
+      long[] sorted = Arrays.copyOf(windowLatencies, windowSamples);
+      Arrays.sort(sorted);
+      long p99Ms = TimeUnit.NANOSECONDS.toMillis(sorted[(int) Math.ceil(sorted.length * 0.99) - 1]);
+      double overloadRate = (double) windowOverloads / windowSamples;
+
+      double previous = limit;
+      if (overloadRate > config.getOverloadRateThreshold() || p99Ms > config.getLatencyThresholdMs()) {
+         limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+      } else if (maxInFlightInWindow >= currentLimit()) {
+         limit = Math.min(config.getMaxLimit(), limit + 1);
+      }
+
+      if ((int) previous != currentLimit()) {
+         log.info("Upload concurrency limit {} -> {} (p99={}ms, overloadRate={})",
+                 (int) previous, currentLimit(), p99Ms, "%.3f".formatted(overloadRate));
+      }
+
+      windowSamples = 0;
+      windowOverloads = 0;
+      maxInFlightInWindow = inFlight;
+   }
+
+   /**
+    * WebClient reports read and connect timeouts as a request exception wrapping
+    * Netty's exception, so the whole cause chain is checked. Other request
+    * failures, such as DNS errors or refused connections, say nothing about load.
+    */
+   boolean isOverload(Throwable error) {
+      for (Throwable cause = error; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+         if (cause instanceof WebClientResponseException webError) {
+            int status = webError.getStatusCode().value();
+            return status == 429 || status == 503;
+         }
+         if (cause instanceof TimeoutException
+                 || cause instanceof io.netty.handler.timeout.TimeoutException
+                 || cause instanceof ConnectTimeoutException) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private int currentLimit() {
+      return (int) limit;
+   }
+
+   public int getLimit() {
+      return currentLimit();
+   }
+
+   public int getInFlight() {
+      return inFlight;
+   }
+
+   public int getQueued() {
+      return waiters.size();
+   }
+
+   private static final class Waiter {
+      private final MonoSink<Void> sink;
+      private final AtomicInteger state = new AtomicInteger(WAITING);
+
+      private Waiter(MonoSink<Void> sink) {
+         this.sink = sink;
+      }
+   }
+}
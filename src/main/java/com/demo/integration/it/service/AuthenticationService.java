@@ -3,15 +3,17 @@ package com.demo.integration.it.service;
 import com.demo.integration.it.config.FileProcessorProperties;
 import com.demo.integration.it.exception.AuthenticationException;
 import com.demo.integration.it.model.AuthResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.http.MediaType;
-import org.springframework.integration.support.locks.LockRegistry;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
@@ -19,177 +21,322 @@ import reactor.util.retry.Retry;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 /*
  * @created by 24/10/2025  - 00:51
  * @project IntegrationDemo
  * @author Goodluck
  */
+
+/**
+ * Hands out the upload API token. The current token is kept in memory so the hot
+ * path never touches Redis; Redis stays the cross-node source of truth and is only
+ * consulted when the local copy is missing or due for renewal. A refresh is
+ * scheduled ahead of {@code TOKEN_BUFFER} so uploads never block on auth.
+ * <p>
+ * Refreshes are fully reactive: concurrent callers share one in-flight refresh,
+ * and nodes coordinate through a short SET NX lease in Redis instead of a
+ * blocking lock.
+ */
 @Service
 @Slf4j
 public class AuthenticationService {
 
    private final WebClient webClient;
    private final FileProcessorProperties properties;
-   private final StringRedisTemplate redisTemplate;
+   private final ReactiveStringRedisTemplate reactiveRedisTemplate;
    private final ObjectMapper objectMapper;
-   private final LockRegistry redisLockRegistry;
+   private final TaskScheduler taskScheduler;
+
+   private final AtomicReference<Mono<CachedToken>> inFlightRefresh = new AtomicReference<>();
+   private volatile CachedToken localToken;
+   private ScheduledFuture<?> refreshTask;
 
    private static final String TOKEN_CACHE_KEY = "api:auth:token";
-   private static final String TOKEN_REFRESH_LOCK = "api:auth:refresh:lock";
+   private static final String TOKEN_REFRESH_LEASE = "api:auth:refresh:lease";
    private static final String TOKEN_METADATA_KEY = "api:auth:metadata";
    private static final Duration TOKEN_BUFFER = Duration.ofMinutes(3);
    private static final Duration MIN_TOKEN_LIFETIME = Duration.ofMinutes(2);
-   private static final long LOCK_WAIT_TIMEOUT_MS = 10000;
+   private static final Duration REFRESH_AHEAD = Duration.ofMinutes(1);
+   private static final Duration REFRESH_RETRY_DELAY = Duration.ofSeconds(10);
+   private static final Duration LEASE_TTL = Duration.ofSeconds(30);
+   private static final Duration LEASE_POLL_INTERVAL = Duration.ofMillis(100);
+   private static final Duration MAX_LEASE_POLL_INTERVAL = Duration.ofSeconds(1);
+   private static final Duration LEASE_WAIT_TIMEOUT = Duration.ofSeconds(10);
+
+   private static final RedisScript<Long> COMPARE_AND_DELETE = RedisScript.of("""
+           if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('DEL', unpack(KEYS))
+           end
+           return 0
+           """, Long.class);
 
    public AuthenticationService(WebClient webClient,
                                 FileProcessorProperties properties,
-                                StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
-                                LockRegistry redisLockRegistry) {
+                                ReactiveStringRedisTemplate reactiveRedisTemplate,
+                                ObjectMapper objectMapper,
+                                TaskScheduler taskScheduler) {
       this.webClient = webClient;
       this.properties = properties;
-      this.redisTemplate = redisTemplate;
+      this.reactiveRedisTemplate = reactiveRedisTemplate;
       this.objectMapper = objectMapper;
-      this.redisLockRegistry = redisLockRegistry;
+      this.taskScheduler = taskScheduler;
    }
 
-   public String getAccessToken() {
-      String cachedToken = getCachedToken();
-      if (cachedToken != null) {
-         log.debug("Using cached token");
-         return cachedToken;
+   public Mono<String> getAccessTokenReactive() {
+      CachedToken cached = localToken;
+      if (cached != null && cached.isValid()) {
+         return Mono.just(cached.token());
       }
 
-      return refreshTokenWithLock();
+      return sharedRefresh(System.currentTimeMillis()).map(CachedToken::token);
    }
 
-   private String getCachedToken() {
-      try {
-         String token = redisTemplate.opsForValue().get(TOKEN_CACHE_KEY);
-         if (token == null) {
-            return null;
-         }
+   /**
+    * Drops a token the upload API rejected, locally and in Redis if no other
+    * worker has replaced it yet, so the next call fetches a new one.
+    */
+   public Mono<Void> invalidateToken(String rejectedToken) {
+      CachedToken cached = localToken;
+      if (cached != null && cached.token().equals(rejectedToken)) {
+         localToken = null;
+      }
+
+      return reactiveRedisTemplate
+              .execute(COMPARE_AND_DELETE, List.of(TOKEN_CACHE_KEY, TOKEN_METADATA_KEY), List.of(rejectedToken))
+              .next()
+              .doOnNext(deleted -> {
+                 if (deleted > 0) {
+                    log.info("Invalidated token rejected by server");
+                 }
+              })
+              .onErrorResume(e -> {
+                 log.warn("Failed to invalidate cached token in Redis", e);
+                 return Mono.empty();
+              })
+              .then();
+   }
 
-         String metadataJson = redisTemplate.opsForValue().get(TOKEN_METADATA_KEY);
-         if (metadataJson != null) {
-            TokenMetadata metadata = objectMapper.readValue(metadataJson, TokenMetadata.class);
-            long minExpiryTime = Instant.now().plus(TOKEN_BUFFER).toEpochMilli();
-
-            if (metadata.getExpiresAt() > minExpiryTime) {
-               log.debug("Token is valid (expires in {}s)",
-                       Duration.ofMillis(metadata.getExpiresAt() - System.currentTimeMillis()).getSeconds());
-               return token;
-            } else {
-               log.debug("Token is expiring soon ({}s remaining), will refresh",
-                       Duration.ofMillis(metadata.getExpiresAt() - System.currentTimeMillis()).getSeconds());
-            }
+   /**
+    * Joins the refresh already running on this node, or starts one. A token is
+    * only accepted if it stays usable past {@code minValidUntil} (epoch millis).
+    */
+   private Mono<CachedToken> sharedRefresh(long minValidUntil) {
+      while (true) {
+         Mono<CachedToken> running = inFlightRefresh.get();
+         if (running != null) {
+            return running;
          }
 
-         return null;
-      } catch (Exception e) {
-         log.warn("Error checking cached token, will refresh", e);
-         return null;
+         Mono<CachedToken> refresh = refreshToken(minValidUntil)
+                 .doOnNext(this::useToken)
+                 .doFinally(signal -> inFlightRefresh.set(null))
+                 .cache();
+
+         if (inFlightRefresh.compareAndSet(null, refresh)) {
+            return refresh;
+         }
       }
    }
 
-   private String refreshTokenWithLock() {
-      Lock lock = redisLockRegistry.obtain(TOKEN_REFRESH_LOCK);
+   private Mono<CachedToken> refreshToken(long minValidUntil) {
+      return Mono.defer(() -> {
+         long deadline = System.currentTimeMillis() + LEASE_WAIT_TIMEOUT.toMillis();
 
-      try {
-         if (lock.tryLock(LOCK_WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
-            try {
-               String token = getCachedToken();
-               if (token != null) {
-                  log.info("Token already refreshed by another worker");
-                  return token;
-               }
-
-               return fetchAndCacheNewToken();
-            } finally {
-               lock.unlock();
-               log.debug("Released distributed lock");
-            }
-         } else {
-            log.warn("Failed to acquire lock within {}ms, checking if token was refreshed", LOCK_WAIT_TIMEOUT_MS);
-
-            String token = getCachedToken();
-            if (token != null) {
-               log.info("Token refreshed by another worker while waiting");
-               return token;
-            }
-
-            throw new AuthenticationException("Failed to acquire lock and no valid token available after waiting");
-         }
+         return getCachedToken(minValidUntil)
+                 .doOnNext(token -> log.debug("Using cached token"))
+                 .switchIfEmpty(Mono.defer(() -> refreshTokenWithLease(minValidUntil, deadline, LEASE_POLL_INTERVAL)));
+      });
+   }
 
-      } catch (InterruptedException e) {
-         Thread.currentThread().interrupt();
-         throw new AuthenticationException("Interrupted while waiting for lock", e);
+   private void refreshAhead() {
+      CachedToken current = localToken;
+      if (current == null) {
+         return;
       }
+
+      sharedRefresh(current.validUntil()).subscribe(
+              token -> log.debug("Proactive token refresh completed"),
+              error -> {
+                 log.warn("Proactive token refresh failed, retrying in {}s", REFRESH_RETRY_DELAY.getSeconds(), error);
+                 scheduleRefresh(Instant.now().plus(REFRESH_RETRY_DELAY));
+              });
+   }
+
+   private void useToken(CachedToken token) {
+      localToken = token;
+      scheduleRefresh(Instant.ofEpochMilli(token.validUntil()).minus(REFRESH_AHEAD));
    }
 
-   private String fetchAndCacheNewToken() {
+   private synchronized void scheduleRefresh(Instant at) {
+      if (refreshTask != null) {
+         refreshTask.cancel(false);
+      }
+      Instant earliest = Instant.now().plusSeconds(1);
+      refreshTask = taskScheduler.schedule(this::refreshAhead, at.isBefore(earliest) ? earliest : at);
+   }
+
+   /**
+    * Reads the shared token from Redis, returning it only if it stays usable past
+    * {@code minValidUntil} (epoch millis).
+    */
+   private Mono<CachedToken> getCachedToken(long minValidUntil) {
+      return reactiveRedisTemplate.opsForValue().multiGet(List.of(TOKEN_CACHE_KEY, TOKEN_METADATA_KEY))
+              .flatMap(values -> {
+                 String token = values.get(0);
+                 String metadataJson = values.get(1);
+                 if (token == null || metadataJson == null) {
+                    return Mono.empty();
+                 }
+
+                 TokenMetadata metadata;
+                 try {
+                    metadata = objectMapper.readValue(metadataJson, TokenMetadata.class);
+                 } catch (JsonProcessingException e) {
+                    return Mono.error(e);
+                 }
+                 long validUntil = metadata.getExpiresAt() - TOKEN_BUFFER.toMillis();
+
+                 if (validUntil > minValidUntil) {
+                    log.debug("Token is valid (expires in {}s)",
+                            Duration.ofMillis(metadata.getExpiresAt() - System.currentTimeMillis()).getSeconds());
+                    return Mono.just(new CachedToken(token, validUntil));
+                 }
+
+                 log.debug("Token is expiring soon ({}s remaining), will refresh",
+                         Duration.ofMillis(metadata.getExpiresAt() - System.currentTimeMillis()).getSeconds());
+                 return Mono.empty();
+              })
+              .onErrorResume(e -> {
+                 log.warn("Error checking cached token, will refresh", e);
+                 return Mono.empty();
+              });
+   }
+
+   /**
+    * Takes the cross-node refresh lease and fetches a new token, or, while another
+    * worker holds the lease, polls Redis with backoff for the token it publishes.
+    */
+   private Mono<CachedToken> refreshTokenWithLease(long minValidUntil, long deadline, Duration pollInterval) {
+      String leaseId = UUID.randomUUID().toString();
+
+      return reactiveRedisTemplate.opsForValue().setIfAbsent(TOKEN_REFRESH_LEASE, leaseId, LEASE_TTL)
+              .flatMap(acquired -> {
+                 if (Boolean.TRUE.equals(acquired)) {
+                    return Mono.usingWhen(
+                            Mono.just(leaseId),
+                            lease -> getCachedToken(minValidUntil)
+                                    .doOnNext(token -> log.info("Token already refreshed by another worker"))
+                                    .switchIfEmpty(Mono.defer(this::fetchAndCacheNewToken)),
+                            this::releaseLease);
+                 }
+
+                 if (System.currentTimeMillis() >= deadline) {
+                    return Mono.error(new AuthenticationException(
+                            "Failed to acquire refresh lease and no valid token available after waiting"));
+                 }
+
+                 Duration nextInterval = pollInterval.multipliedBy(2).compareTo(MAX_LEASE_POLL_INTERVAL) > 0
+                         ? MAX_LEASE_POLL_INTERVAL
+                         : pollInterval.multipliedBy(2);
+
+                 return Mono.delay(pollInterval)
+                         .then(getCachedToken(minValidUntil))
+                         .doOnNext(token -> log.info("Token refreshed by another worker while waiting"))
+                         .switchIfEmpty(Mono.defer(() ->
+                                 refreshTokenWithLease(minValidUntil, deadline, nextInterval)));
+              });
+   }
+
+   private Mono<Void> releaseLease(String leaseId) {
+      return reactiveRedisTemplate
+              .execute(COMPARE_AND_DELETE, List.of(TOKEN_REFRESH_LEASE), List.of(leaseId))
+              .doOnComplete(() -> log.debug("Released refresh lease"))
+              .onErrorResume(e -> {
+                 log.warn("Failed to release refresh lease, it expires in {}s", LEASE_TTL.getSeconds(), e);
+                 return Mono.empty();
+              })
+              .then();
+   }
+
+   private Mono<CachedToken> fetchAndCacheNewToken() {
       Map<String, String> authRequest = Map.of(
               "username", properties.getUsername(),
               "password", properties.getPassword()
       );
 
-      try {
-         AuthResponse authResponse = webClient.post()
-                 .contentType(MediaType.APPLICATION_JSON)
-                 .bodyValue(authRequest)
-                 .retrieve()
-                 .onStatus(
-                         status -> status.is4xxClientError() || status.is5xxServerError(),
-                         clientResponse -> clientResponse.bodyToMono(String.class)
-                                 .flatMap(errorBody -> {
-                                    log.error("Authentication failed with status {}: {}",
-                                            clientResponse.statusCode(), errorBody);
-                                    return Mono.error(new AuthenticationException(
-                                            "Authentication failed with status: " + clientResponse.statusCode()));
-                                 })
-                 )
-                 .bodyToMono(AuthResponse.class)
-                 .retryWhen(Retry.backoff(2, Duration.ofSeconds(1))
-                         .maxBackoff(Duration.ofSeconds(5))
-                         .filter(throwable -> !(throwable instanceof AuthenticationException))
-                         .doBeforeRetry(retrySignal ->
-                                 log.warn("Retrying authentication (attempt {})", retrySignal.totalRetries() + 1))
-                 )
-                 .timeout(Duration.ofSeconds(15))
-                 .block();
-
-         if (authResponse == null || authResponse.getToken() == null) {
-            throw new AuthenticationException("Invalid auth response");
-         }
+      return webClient.post()
+              .contentType(MediaType.APPLICATION_JSON)
+              .bodyValue(authRequest)
+              .retrieve()
+              .onStatus(
+                      status -> status.is4xxClientError() || status.is5xxServerError(),
+                      clientResponse -> clientResponse.bodyToMono(String.class)
+                              .flatMap(errorBody -> {
+                                 log.error("Authentication failed with status {}: {}",
+                                         clientResponse.statusCode(), errorBody);
+                                 return Mono.error(new AuthenticationException(
+                                         "Authentication failed with status: " + clientResponse.statusCode()));
+                              })
+              )
+              .bodyToMono(AuthResponse.class)
+              .retryWhen(Retry.backoff(2, Duration.ofSeconds(1))
+                      .maxBackoff(Duration.ofSeconds(5))
+                      .filter(throwable -> !(throwable instanceof AuthenticationException))
+                      .doBeforeRetry(retrySignal ->
+                              log.warn("Retrying authentication (attempt {})", retrySignal.totalRetries() + 1))
+              )
+              .timeout(Duration.ofSeconds(15))
+              .filter(authResponse -> authResponse.getToken() != null)
+              .switchIfEmpty(Mono.error(() -> new AuthenticationException("Invalid auth response")))
+              .flatMap(this::cacheToken)
+              .onErrorMap(e -> {
+                 log.error("Authentication failed", e);
+                 return new AuthenticationException("Failed to authenticate", e);
+              });
+   }
 
-         Instant expiresAt = authResponse.getExpiresAt();
-         if (expiresAt == null) {
-            expiresAt = Instant.now().plus(Duration.ofMinutes(10));
-         }
+   private Mono<CachedToken> cacheToken(AuthResponse authResponse) {
+      Instant expiresAt = authResponse.getExpiresAt();
+      if (expiresAt == null) {
+         expiresAt = Instant.now().plus(Duration.ofMinutes(10));
+      }
 
-         Duration ttl = Duration.between(Instant.now(), expiresAt).minus(TOKEN_BUFFER);
-         if (ttl.compareTo(MIN_TOKEN_LIFETIME) < 0) {
-            ttl = MIN_TOKEN_LIFETIME;
-         }
+      Duration ttl = Duration.between(Instant.now(), expiresAt).minus(TOKEN_BUFFER);
+      if (ttl.compareTo(MIN_TOKEN_LIFETIME) < 0) {
+         ttl = MIN_TOKEN_LIFETIME;
+      }
 
-         TokenMetadata metadata = TokenMetadata
-                 .builder()
-                 .expiresAt(expiresAt.toEpochMilli())
-                 .refreshedAt(Instant.now().toEpochMilli())
-                 .build();
+      TokenMetadata metadata = TokenMetadata
+              .builder()
+              .expiresAt(expiresAt.toEpochMilli())
+              .refreshedAt(Instant.now().toEpochMilli())
+              .build();
 
-         redisTemplate.opsForValue().set(TOKEN_CACHE_KEY, authResponse.getToken(), ttl);
-         redisTemplate.opsForValue().set(TOKEN_METADATA_KEY, objectMapper.writeValueAsString(metadata), ttl);
+      String metadataJson;
+      try {
+         metadataJson = objectMapper.writeValueAsString(metadata);
+      } catch (JsonProcessingException e) {
+         return Mono.error(e);
+      }
 
-         log.info("Successfully obtained and cached new token (TTL: {}s)", ttl.getSeconds());
-         return authResponse.getToken();
+      Duration cacheTtl = ttl;
+      return reactiveRedisTemplate.opsForValue().set(TOKEN_CACHE_KEY, authResponse.getToken(), cacheTtl)
+              .then(reactiveRedisTemplate.opsForValue().set(TOKEN_METADATA_KEY, metadataJson, cacheTtl))
+              .then(Mono.fromSupplier(() -> {
+                 log.info("Successfully obtained and cached new token (TTL: {}s)", cacheTtl.getSeconds());
+                 return new CachedToken(authResponse.getToken(), Instant.now().plus(cacheTtl).toEpochMilli());
+              }));
+   }
 
-      } catch (Exception e) {
-         log.error("Authentication failed", e);
-         throw new AuthenticationException("Failed to authenticate", e);
+   private record CachedToken(String token, long validUntil) {
+      boolean isValid() {
+         return validUntil > System.currentTimeMillis();
       }
    }
 
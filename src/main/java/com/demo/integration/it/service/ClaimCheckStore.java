@@ -0,0 +1,144 @@
+package com.demo.integration.it.service;
+
+import com.demo.integration.it.config.FileProcessorProperties;
+import com.demo.integration.it.constant.AppConstants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * @created by 17/10/2026  - 14:00
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Claim check for oversized stream entries. Payloads above the threshold are
+ * stored under their own key with a TTL and the stream entry carries only the
+ * key, so XREADGROUP and stream memory stay proportional to the entry count
+ * rather than the batch size. Consumers fetch the payload when they get to the
+ * entry, after the hand-off to an upload worker.
+ * <p>
+ * Payload keys are deleted together with the XACK of their entry, including
+ * entries moved to the DLQ, which carry the payload themselves. The TTL is only a
+ * backstop and must outlast the longest time an entry can stay unacknowledged in
+ * the pending entries list, or the entry can no longer be uploaded.
+ */
+@Service
+@Slf4j
+public class ClaimCheckStore {
+
+   private static final String PAYLOAD_PREFIX = "batch:payload:";
+
+   private final RedisTemplate<String, byte[]> streamRedisTemplate;
+   private final ReactiveRedisTemplate<String, byte[]> reactiveStreamRedisTemplate;
+   private final FileProcessorProperties properties;
+
+   public ClaimCheckStore(RedisTemplate<String, byte[]> streamRedisTemplate,
+                          ReactiveRedisTemplate<String, byte[]> reactiveStreamRedisTemplate,
+                          FileProcessorProperties properties) {
+      this.streamRedisTemplate = streamRedisTemplate;
+      this.reactiveStreamRedisTemplate = reactiveStreamRedisTemplate;
+      this.properties = properties;
+   }
+
+   /**
+    * Moves the payload of an encoded entry out of the stream if it exceeds the
+    * threshold. The payload is written before the entry is returned, so a
+    * consumer can never see a reference to a missing payload (short of TTL
+    * expiry).
+    */
+   public Map<String, byte[]> checkIn(String batchId, Map<String, byte[]> entry) {
+      Prepared prepared = prepare(batchId, entry);
+      if (prepared.payloadKey() != null) {
+         streamRedisTemplate.opsForValue().set(prepared.payloadKey(), prepared.payload(), ttl());
+      }
+      return prepared.fields();
+   }
+
+   /**
+    * Splits an oversized payload off the entry without writing it, for callers
+    * that queue the payload SET themselves ahead of the XADD.
+    */
+   public Prepared prepare(String batchId, Map<String, byte[]> entry) {
+      int threshold = properties.getRedisQueue().getClaimCheckThresholdBytes();
+      byte[] payload = entry.get(AppConstants.STREAM_PAYLOAD_FIELD);
+      if (threshold <= 0 || payload == null || payload.length <= threshold) {
+         return new Prepared(entry, null, null);
+      }
+
+      String key = PAYLOAD_PREFIX + batchId;
+      log.debug("Claim-checking {} byte payload of batch {} under {}", payload.length, batchId, key);
+
+      Map<String, byte[]> reference = new HashMap<>(entry);
+      reference.remove(AppConstants.STREAM_PAYLOAD_FIELD);
+      reference.put(AppConstants.STREAM_PAYLOAD_REF_FIELD, key.getBytes(StandardCharsets.UTF_8));
+      return new Prepared(reference, key, payload);
+   }
+
+   public Duration ttl() {
+      return Duration.ofMillis(properties.getRedisQueue().getClaimCheckTtlMs());
+   }
+
+   /**
+    * The entry with its payload in place, fetching it if it was claim-checked.
+    */
+   public Map<?, ?> checkOut(Map<?, ?> entry) throws IOException {
+      String key = referenceOf(entry);
+      if (key == null) {
+         return entry;
+      }
+      return withPayload(entry, key, streamRedisTemplate.opsForValue().get(key));
+   }
+
+   public Mono<Map<?, ?>> checkOutReactive(Map<?, ?> entry) {
+      String key = referenceOf(entry);
+      if (key == null) {
+         return Mono.just(entry);
+      }
+      return reactiveStreamRedisTemplate.opsForValue().get(key)
+              .defaultIfEmpty(new byte[0])
+              .handle((payload, sink) -> {
+                 try {
+                    sink.next(withPayload(entry, key, payload.length == 0 ? null : payload));
+                 } catch (IOException e) {
+                    sink.error(e);
+                 }
+              });
+   }
+
+   /**
+    * Key of the claim-checked payload an entry references, or {@code null}.
+    */
+   public static String referenceOf(Map<?, ?> entry) {
+      Object reference = entry.get(AppConstants.STREAM_PAYLOAD_REF_FIELD);
+      if (reference == null) {
+         return null;
+      }
+      return reference instanceof byte[] raw ? new String(raw, StandardCharsets.UTF_8) : reference.toString();
+   }
+
+   /**
+    * Stream entry fields, plus the payload to store under {@code payloadKey}
+    * first if it was split off.
+    */
+   public record Prepared(Map<String, byte[]> fields, String payloadKey, byte[] payload) {
+   }
+
+   private static Map<?, ?> withPayload(Map<?, ?> entry, String key, byte[] payload) throws IOException {
+      if (payload == null) {
+         throw new IOException("Claim-checked payload " + key + " is missing or expired");
+      }
+      Map<Object, Object> resolved = new HashMap<>(entry);
+      resolved.put(AppConstants.STREAM_PAYLOAD_FIELD, payload);
+      return resolved;
+   }
+}
@@ -0,0 +1,108 @@
+package com.demo.integration.it.service;
+
+import com.demo.integration.it.model.OrderRecord;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/*
+ * @created by 16/10/2026  - 09:12
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Pulls {@link OrderRecord}s lazily from an open workbook and hands them out in
+ * batches of a fixed size, so only the current batch is held on the heap.
+ * The underlying workbook is closed as soon as the last row has been consumed.
+ */
+@Slf4j
+public class ExcelBatchIterator implements Iterator<List<OrderRecord>>, Closeable {
+
+   private final Iterator<OrderRecord> records;
+   private final Closeable resource;
+   private final int batchSize;
+   private int batchCount;
+   private int skipRemaining;
+   private boolean closed;
+
+   public ExcelBatchIterator(Iterator<OrderRecord> records, Closeable resource, int batchSize) {
+      if (batchSize <= 0) {
+         throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+      }
+      this.records = records;
+      this.resource = resource;
+      this.batchSize = batchSize;
+   }
+
+   @Override
+   public boolean hasNext() {
+      if (closed) {
+         return false;
+      }
+      boolean more = records.hasNext();
+      if (!more) {
+         close();
+      }
+      return more;
+   }
+
+   @Override
+   public List<OrderRecord> next() {
+      if (!hasNext()) {
+         throw new NoSuchElementException("No more batches");
+      }
+
+      batchCount++;
+      if (skipRemaining > 0) {
+         skipRemaining--;
+         for (int i = 0; i < batchSize && records.hasNext(); i++) {
+            records.next();
+         }
+         return List.of();
+      }
+
+      List<OrderRecord> batch = new ArrayList<>(batchSize);
+      while (batch.size() < batchSize && records.hasNext()) {
+         batch.add(records.next());
+      }
+      return batch;
+   }
+
+   /**
+    * Returns the next {@code count} batches empty, without collecting their
+    * records. Batch boundaries and the batch count stay the same as a full read.
+    */
+   public void skipBatches(int count) {
+      skipRemaining = Math.max(0, count);
+   }
+
+   /**
+    * Whether the batch returned by the last {@link #next()} call was the final one.
+    */
+   public boolean isExhausted() {
+      return !hasNext();
+   }
+
+   public int getBatchCount() {
+      return batchCount;
+   }
+
+   @Override
+   public void close() {
+      if (closed) {
+         return;
+      }
+      closed = true;
+      try {
+         resource.close();
+      } catch (IOException e) {
+         log.warn("Failed to close workbook after streaming {} batches", batchCount, e);
+      }
+   }
+}
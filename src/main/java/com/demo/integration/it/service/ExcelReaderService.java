@@ -7,7 +7,6 @@ import org.apache.poi.ss.usermodel.*;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -25,8 +24,7 @@ public class ExcelReaderService {
    public List<OrderRecord> readExcelFile(File file) throws ExcelParsingException {
       List<OrderRecord> records = new ArrayList<>();
 
-      try (FileInputStream fis = new FileInputStream(file);
-           Workbook workbook = WorkbookFactory.create(fis)) {
+      try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
 
          Sheet sheet = workbook.getSheetAt(0);
 
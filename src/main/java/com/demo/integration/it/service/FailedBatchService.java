@@ -1,5 +1,6 @@
 package com.demo.integration.it.service;
 
+import com.demo.integration.it.codec.PayloadCompression;
 import com.demo.integration.it.config.FileProcessorProperties;
 import com.demo.integration.it.model.BatchRequest;
 import com.demo.integration.it.model.FailedBatch;
@@ -10,8 +11,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
@@ -30,15 +33,20 @@ import static com.demo.integration.it.model.FailedBatch.BatchStatus.*;
 @Slf4j
 public class FailedBatchService {
 
+   private static final String DB_TARGET = "db";
+
    private final FailedBatchRepository repository;
    private final ObjectMapper objectMapper;
    private final FileProcessorProperties properties;
+   private final PayloadCompression payloadCompression;
    private final String instanceId;
 
-   public FailedBatchService(FailedBatchRepository repository, ObjectMapper objectMapper, FileProcessorProperties properties) {
+   public FailedBatchService(FailedBatchRepository repository, ObjectMapper objectMapper,
+                             FileProcessorProperties properties, PayloadCompression payloadCompression) {
       this.repository = repository;
       this.objectMapper = objectMapper;
       this.properties = properties;
+      this.payloadCompression = payloadCompression;
       this.instanceId = generateInstanceId();
    }
 
@@ -141,8 +149,19 @@ public class FailedBatchService {
       return Arrays.asList(properties.getAlertErrorCodes().split(",")).contains(errorCode);
    }
 
+   /**
+    * Batch stored in a failed-batch row, decompressing the payload if needed.
+    */
+   public BatchRequest readBatch(FailedBatch failedBatch) throws IOException {
+      String json = payloadCompression.decompressText(failedBatch.getPayload(), DB_TARGET);
+      return objectMapper.readValue(json, BatchRequest.class);
+   }
+
    @SneakyThrows
    private String serializeToJson(BatchRequest batch) {
-      return objectMapper.writeValueAsString(batch);
+      String json = batch.getRawJson() != null
+              ? new String(batch.getRawJson(), StandardCharsets.UTF_8)
+              : objectMapper.writeValueAsString(batch);
+      return payloadCompression.compressText(json, DB_TARGET);
    }
 }
@@ -7,11 +7,12 @@ import org.dhatim.fastexcel.reader.ReadableWorkbook;
 import org.dhatim.fastexcel.reader.Row;
 import org.springframework.stereotype.Service;
 
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Stream;
 
 /*
@@ -32,25 +33,13 @@ public class FastExcelReaderService {
    public List<OrderRecord> readExcelFile(File file) throws ExcelParsingException {
       List<OrderRecord> records = new ArrayList<>();
 
-      try (FileInputStream fis = new FileInputStream(file);
-           ReadableWorkbook workbook = new ReadableWorkbook(fis)) {
+      try (ReadableWorkbook workbook = new ReadableWorkbook(file)) {
 
          try (Stream<Row> rows = workbook.getFirstSheet().openStream()) {
-            rows.skip(1).forEach(row -> {
-               try {
-                  var orderRecord = OrderRecord.builder()
-                          .orderId(row.getCellAsString(0).orElse(""))
-                          .customerName(row.getCellAsString(1).orElse(""))
-                          .product(row.getCellAsString(2).orElse(""))
-                          .amount(row.getCellAsNumber(3).orElse(null))
-                          .orderDate(row.getCellAsDate(4).map(java.time.LocalDateTime::toLocalDate).orElse(null))
-                          .build();
-                  records.add(orderRecord);
-               } catch (Exception e) {
-                  log.warn("Skipping invalid row {} in file {}: {}",
-                          row.getRowNum(), file.getName(), e.getMessage());
-               }
-            });
+            rows.skip(1)
+                    .map(row -> toOrderRecord(row, file))
+                    .filter(Objects::nonNull)
+                    .forEach(records::add);
          }
          log.info("Successfully read {} records from file: {}", records.size(), file.getName());
          return records;
@@ -60,4 +49,56 @@ public class FastExcelReaderService {
 
       return excelReaderService.readExcelFile(file);
    }
+
+   public ExcelBatchIterator openBatchIterator(File file, int batchSize) throws ExcelParsingException {
+      ReadableWorkbook workbook = null;
+      try {
+         workbook = new ReadableWorkbook(file);
+         Stream<Row> rows = workbook.getFirstSheet().openStream();
+
+         ReadableWorkbook openWorkbook = workbook;
+         var records = rows.skip(1)
+                 .map(row -> toOrderRecord(row, file))
+                 .filter(Objects::nonNull)
+                 .iterator();
+
+         log.info("Streaming records from file {} in batches of {}", file.getName(), batchSize);
+         return new ExcelBatchIterator(records, () -> {
+            try (openWorkbook) {
+               rows.close();
+            }
+         }, batchSize);
+      } catch (IOException e) {
+         log.error("Error streaming Excel file with FastExcelReader: {}", file.getName(), e);
+         closeQuietly(workbook);
+      }
+
+      List<OrderRecord> records = excelReaderService.readExcelFile(file);
+      return new ExcelBatchIterator(records.iterator(), () -> {}, batchSize);
+   }
+
+   private OrderRecord toOrderRecord(Row row, File file) {
+      try {
+         return OrderRecord.builder()
+                 .orderId(row.getCellAsString(0).orElse(""))
+                 .customerName(row.getCellAsString(1).orElse(""))
+                 .product(row.getCellAsString(2).orElse(""))
+                 .amount(row.getCellAsNumber(3).orElse(null))
+                 .orderDate(row.getCellAsDate(4).map(java.time.LocalDateTime::toLocalDate).orElse(null))
+                 .build();
+      } catch (Exception e) {
+         log.warn("Skipping invalid row {} in file {}: {}",
+                 row.getRowNum(), file.getName(), e.getMessage());
+         return null;
+      }
+   }
+
+   private void closeQuietly(Closeable closeable) {
+      if (closeable == null) return;
+      try {
+         closeable.close();
+      } catch (IOException e) {
+         log.warn("Failed to close {}", closeable.getClass().getSimpleName(), e);
+      }
+   }
 }
@@ -0,0 +1,213 @@
+package com.demo.integration.it.service;
+
+import com.demo.integration.it.config.FileProcessorProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+/*
+ * @created by 16/10/2026  - 23:05
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Per-file publish progress, keyed by content checksum so a re-dropped or
+ * recovered copy of the same workbook resumes where the last attempt stopped.
+ * The checkpoint is the highest batch sequence up to which every batch has been
+ * published; batches published out of order (pipelined writes) are held locally
+ * until the gap before them closes.
+ * <p>
+ * Checkpoints are stored as {@code <batchSize>:<sequence>}. A checkpoint written
+ * with a different batch size points at different rows and is ignored. To keep
+ * Redis off the per-batch path, a checkpoint is only written every
+ * {@code checkpointIntervalBatches} batches and when a file is abandoned;
+ * resuming from an older checkpoint republishes the batches after it, under the
+ * same IDs when {@code deterministicBatchIds} is on.
+ * <p>
+ * Files normally leave the store through {@link #complete} or {@link #abandon}.
+ * Files that fail on a path that calls neither are abandoned by a periodic sweep
+ * once no batch was published for {@code completionMaxDurationMs} (or the idle
+ * timeout if there is no maximum), so their progress is not kept forever.
+ */
+@Service
+@Slf4j
+public class FileCheckpointStore implements InitializingBean, DisposableBean {
+
+   private static final String CHECKPOINT_PREFIX = "file:checkpoint:";
+   private static final Duration CHECKPOINT_TTL = Duration.ofDays(7);
+   private static final Duration SWEEP_INTERVAL = Duration.ofMinutes(1);
+
+   private final StringRedisTemplate redisTemplate;
+   private final FileProcessorProperties properties;
+   private final TaskScheduler taskScheduler;
+   private final Map<String, Progress> progress = new ConcurrentHashMap<>();
+   private ScheduledFuture<?> sweepTask;
+
+   public FileCheckpointStore(StringRedisTemplate redisTemplate,
+                              FileProcessorProperties properties,
+                              TaskScheduler taskScheduler) {
+      this.redisTemplate = redisTemplate;
+      this.properties = properties;
+      this.taskScheduler = taskScheduler;
+   }
+
+   @Override
+   public void afterPropertiesSet() {
+      sweepTask = taskScheduler.scheduleWithFixedDelay(this::evictStalledFiles, SWEEP_INTERVAL);
+   }
+
+   /**
+    * Starts tracking a file and returns the sequence to resume after; 0 when the
+    * file has no checkpoint.
+    */
+   public int resume(String checksum) {
+      String stored = redisTemplate.opsForValue().get(CHECKPOINT_PREFIX + checksum);
+      int checkpoint = parse(checksum, stored);
+      progress.put(checksum, new Progress(checkpoint));
+
+      if (checkpoint > 0) {
+         log.info("Resuming file with checksum {} after batch {}", checksum, checkpoint);
+      }
+      return checkpoint;
+   }
+
+   public void markPublished(String checksum, int sequence) {
+      Progress fileProgress = progress.get(checksum);
+      if (fileProgress == null) {
+         return;
+      }
+
+      fileProgress.complete(sequence);
+      store(checksum, fileProgress.due(properties.getIngestion().getCheckpointIntervalBatches()));
+   }
+
+   /**
+    * Drops the checkpoint once every batch of the file has been published.
+    */
+   public void complete(String checksum) {
+      progress.remove(checksum);
+      try {
+         redisTemplate.delete(CHECKPOINT_PREFIX + checksum);
+      } catch (Exception e) {
+         log.warn("Failed to delete checkpoint for checksum {}, it expires in {}", checksum, CHECKPOINT_TTL, e);
+      }
+   }
+
+   /**
+    * Stops tracking a file that ended incomplete, keeping its checkpoint for the
+    * next attempt.
+    */
+   public void abandon(String checksum) {
+      Progress fileProgress = progress.remove(checksum);
+      if (fileProgress != null) {
+         store(checksum, fileProgress.due(1));
+      }
+   }
+
+   private void evictStalledFiles() {
+      FileProcessorProperties.Ingestion ingestion = properties.getIngestion();
+      long maxIdleMs = ingestion.getCompletionMaxDurationMs() > 0
+              ? ingestion.getCompletionMaxDurationMs()
+              : ingestion.getCompletionIdleTimeoutMs();
+      long idleBefore = System.currentTimeMillis() - maxIdleMs;
+
+      progress.forEach((checksum, fileProgress) -> {
+         if (fileProgress.lastUpdated() < idleBefore && progress.remove(checksum, fileProgress)) {
+            log.warn("Dropping checkpoint progress of checksum {}, no batch was published for {} ms",
+                    checksum, maxIdleMs);
+            store(checksum, fileProgress.due(1));
+         }
+      });
+   }
+
+   @Override
+   public void destroy() {
+      if (sweepTask != null) {
+         sweepTask.cancel(false);
+      }
+   }
+
+   private void store(String checksum, int checkpoint) {
+      if (checkpoint <= 0) {
+         return;
+      }
+      try {
+         redisTemplate.opsForValue().set(CHECKPOINT_PREFIX + checksum,
+                 properties.getBatchSize() + ":" + checkpoint, CHECKPOINT_TTL);
+      } catch (Exception e) {
+         log.warn("Failed to store checkpoint {} for checksum {}", checkpoint, checksum, e);
+      }
+   }
+
+   private int parse(String checksum, String stored) {
+      if (stored == null) {
+         return 0;
+      }
+      int separator = stored.indexOf(':');
+      if (separator < 0 || Integer.parseInt(stored.substring(0, separator)) != properties.getBatchSize()) {
+         log.warn("Ignoring checkpoint {} for checksum {}, it was written with another batch size", stored, checksum);
+         return 0;
+      }
+      return Integer.parseInt(stored.substring(separator + 1));
+   }
+
+   static final class Progress {
+
+      private int contiguous;
+      private int stored;
+      private final BitSet ahead = new BitSet();
+      private volatile long lastUpdated = System.currentTimeMillis();
+
+      Progress(int contiguous) {
+         this.contiguous = contiguous;
+         this.stored = contiguous;
+      }
+
+      long lastUpdated() {
+         return lastUpdated;
+      }
+
+      /**
+       * Returns the checkpoint to store if it moved at least {@code interval}
+       * batches past the stored one, otherwise 0.
+       */
+      synchronized int due(int interval) {
+         if (contiguous - stored < Math.max(1, interval)) {
+            return 0;
+         }
+         stored = contiguous;
+         return contiguous;
+      }
+
+      /**
+       * Returns the new checkpoint if it moved, otherwise 0.
+       */
+      synchronized int complete(int sequence) {
+         lastUpdated = System.currentTimeMillis();
+         if (sequence <= contiguous) {
+            return 0;
+         }
+         ahead.set(sequence - contiguous - 1);
+
+         int advance = ahead.nextClearBit(0);
+         if (advance == 0) {
+            return 0;
+         }
+         contiguous += advance;
+         BitSet remaining = ahead.get(advance, Math.max(advance, ahead.length()));
+         ahead.clear();
+         ahead.or(remaining);
+         return contiguous;
+      }
+   }
+}
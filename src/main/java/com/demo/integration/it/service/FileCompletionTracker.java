@@ -0,0 +1,235 @@
+package com.demo.integration.it.service;
+
+import com.demo.integration.it.config.FileProcessorProperties;
+import com.demo.integration.it.constant.AppConstants;
+import com.demo.integration.it.handler.FileAggregationHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.file.FileHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+/*
+ * @created by 17/10/2026  - 09:20
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Tracks which batches of each file have come back from the writer, keeping only
+ * counters per file instead of the batch messages themselves. Once every batch is
+ * accounted for the file is handed to {@link FileAggregationHandler}. A file is
+ * given up as incomplete only when no batch arrived for the idle timeout, or when
+ * it exceeds the per-file maximum, so large files still publishing are not
+ * failed just for taking long.
+ * <p>
+ * Every finished attempt leaves a short-lived tombstone keyed by its correlation
+ * ID (the ID of the file message the batches were split from). Batches of an
+ * attempt that was already given up and arrive late are dropped instead of
+ * starting a second count for the same file, which would finalize it twice. A
+ * new attempt at the same file has a new correlation ID and is not affected.
+ */
+@Service
+@Slf4j
+public class FileCompletionTracker implements InitializingBean, DisposableBean {
+
+   private static final Duration MAX_SWEEP_INTERVAL = Duration.ofSeconds(5);
+   private static final Duration TOMBSTONE_TTL = Duration.ofMinutes(15);
+
+   private final FileAggregationHandler fileAggregationHandler;
+   private final FileProcessorProperties properties;
+   private final TaskScheduler taskScheduler;
+
+   private final Map<String, FileProgress> inProgress = new ConcurrentHashMap<>();
+   private final Map<Object, Long> finishedAttempts = new ConcurrentHashMap<>();
+   private ScheduledFuture<?> sweepTask;
+
+   public FileCompletionTracker(FileAggregationHandler fileAggregationHandler,
+                                FileProcessorProperties properties,
+                                TaskScheduler taskScheduler) {
+      this.fileAggregationHandler = fileAggregationHandler;
+      this.properties = properties;
+      this.taskScheduler = taskScheduler;
+   }
+
+   @Override
+   public void afterPropertiesSet() {
+      Duration idleTimeout = Duration.ofMillis(properties.getIngestion().getCompletionIdleTimeoutMs());
+      Duration sweepInterval = idleTimeout.dividedBy(4);
+      if (sweepInterval.compareTo(MAX_SWEEP_INTERVAL) > 0 || sweepInterval.isZero()) {
+         sweepInterval = MAX_SWEEP_INTERVAL;
+      }
+      sweepTask = taskScheduler.scheduleWithFixedDelay(this::expireStalledFiles, sweepInterval);
+   }
+
+   /**
+    * Counts one batch coming back from the writer, published or failed.
+    */
+   public void track(Message<?> message) {
+      MessageHeaders headers = message.getHeaders();
+      String fileName = headers.get("fileName", String.class);
+      boolean failed = Boolean.TRUE.equals(headers.get(AppConstants.BATCH_FAILED_HEADER, Boolean.class));
+      Integer expected = expectedBatchCount(message);
+      Object correlationId = new IntegrationMessageHeaderAccessor(message).getCorrelationId();
+
+      boolean[] late = new boolean[1];
+      Completion[] completed = new Completion[1];
+      inProgress.compute(fileName, (name, progress) -> {
+         if (correlationId != null && finishedAttempts.containsKey(correlationId)) {
+            late[0] = true;
+            return progress;
+         }
+         if (progress == null) {
+            progress = new FileProgress(originalFile(headers),
+                    headers.get(AppConstants.FILE_CHECKSUM_HEADER, String.class), correlationId);
+         }
+         progress.record(failed, expected);
+         if (progress.isDone()) {
+            completed[0] = finish(name, progress);
+            return null;
+         }
+         return progress;
+      });
+
+      if (late[0]) {
+         log.warn("Dropping late batch of {}, the file was already finished", fileName);
+         return;
+      }
+      if (completed[0] != null) {
+         fileAggregationHandler.finalizeFile(completed[0]);
+      }
+   }
+
+   private void expireStalledFiles() {
+      long now = System.currentTimeMillis();
+      long idleBefore = now - properties.getIngestion().getCompletionIdleTimeoutMs();
+      long maxDurationMs = properties.getIngestion().getCompletionMaxDurationMs();
+      long startedBefore = maxDurationMs > 0 ? now - maxDurationMs : Long.MIN_VALUE;
+
+      for (String fileName : inProgress.keySet()) {
+         Completion[] expired = new Completion[1];
+         inProgress.computeIfPresent(fileName, (name, progress) -> {
+            if (progress.lastActivity >= idleBefore && progress.startedAt >= startedBefore) {
+               return progress;
+            }
+            expired[0] = finish(name, progress);
+            return null;
+         });
+         if (expired[0] == null) {
+            continue;
+         }
+
+         log.warn("File {} stalled or exceeded its maximum processing time after {} batches, finishing it as incomplete",
+                 fileName, expired[0].received());
+         try {
+            fileAggregationHandler.finalizeFile(expired[0]);
+         } catch (Exception e) {
+            log.error("Failed to finish idle file {}", fileName, e);
+         }
+      }
+
+      finishedAttempts.values().removeIf(expiresAt -> expiresAt < now);
+   }
+
+   /**
+    * Called inside the map update for the file, so a batch of the same attempt
+    * either counts before the tombstone is set or sees it.
+    */
+   private Completion finish(String fileName, FileProgress progress) {
+      if (progress.correlationId != null) {
+         finishedAttempts.put(progress.correlationId, System.currentTimeMillis() + TOMBSTONE_TTL.toMillis());
+      }
+      return progress.toCompletion(fileName);
+   }
+
+   /**
+    * Total batch count of the file: the sequence size for split lists, or the
+    * total carried on the last batch of a streamed file.
+    */
+   private static Integer expectedBatchCount(Message<?> message) {
+      int sequenceSize = new IntegrationMessageHeaderAccessor(message).getSequenceSize();
+      if (sequenceSize > 0) {
+         return sequenceSize;
+      }
+      return message.getHeaders().get(AppConstants.BATCH_TOTAL_HEADER, Integer.class);
+   }
+
+   private static File originalFile(MessageHeaders headers) {
+      Object originalFile = headers.get(FileHeaders.ORIGINAL_FILE);
+      if (originalFile instanceof File file) {
+         return file;
+      }
+      return originalFile != null ? new File(originalFile.toString()) : null;
+   }
+
+   @Override
+   public void destroy() {
+      if (sweepTask != null) {
+         sweepTask.cancel(false);
+      }
+   }
+
+   /**
+    * Final counts of a file; {@code expected} is {@code null} if the last batch of
+    * a streamed file never arrived.
+    */
+   public record Completion(String fileName, File originalFile, String checksum,
+                            Integer expected, int published, int failed) {
+
+      public int received() {
+         return published + failed;
+      }
+
+      public boolean isComplete() {
+         return expected != null && failed == 0 && published == expected;
+      }
+   }
+
+   private static final class FileProgress {
+
+      private final File originalFile;
+      private final String checksum;
+      private final Object correlationId;
+      private Integer expected;
+      private int published;
+      private int failed;
+      private final long startedAt = System.currentTimeMillis();
+      private long lastActivity = startedAt;
+
+      private FileProgress(File originalFile, String checksum, Object correlationId) {
+         this.originalFile = originalFile;
+         this.checksum = checksum;
+         this.correlationId = correlationId;
+      }
+
+      private void record(boolean batchFailed, Integer total) {
+         if (batchFailed) {
+            failed++;
+         } else {
+            published++;
+         }
+         if (total != null) {
+            expected = total;
+         }
+         lastActivity = System.currentTimeMillis();
+      }
+
+      private boolean isDone() {
+         return expected != null && published + failed >= expected;
+      }
+
+      private Completion toCompletion(String fileName) {
+         return new Completion(fileName, originalFile, checksum, expected, published, failed);
+      }
+   }
+}
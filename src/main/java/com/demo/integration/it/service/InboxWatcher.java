@@ -0,0 +1,176 @@
+package com.demo.integration.it.service;
+
+import com.demo.integration.it.config.FileProcessorProperties;
+import com.demo.integration.it.constant.AppConstants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.integration.file.FileHeaders;
+import org.springframework.integration.file.filters.FileListFilter;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.ErrorMessage;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * @created by 16/10/2026  - 20:10
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Pushes new inbox files into the producer flow as soon as the OS reports them,
+ * instead of waiting for the next directory poll. A file is dispatched once no
+ * further create/modify events arrived for it during the settle time, so files
+ * still being copied in are not picked up half-written. Files go through the same
+ * filter as the rescan adapter, so each file is processed once whichever path
+ * sees it first.
+ */
+@Service
+@Slf4j
+public class InboxWatcher implements SmartLifecycle {
+
+   private final FileProcessorProperties properties;
+   private final FileListFilter<File> compositeFileFilter;
+   private final MessageChannel fileIntakeChannel;
+   private final MessageChannel errorChannel;
+
+   private volatile boolean running;
+   private WatchService watchService;
+
+   public InboxWatcher(FileProcessorProperties properties,
+                       @Qualifier("compositeFileFilter") FileListFilter<File> compositeFileFilter,
+                       @Qualifier(AppConstants.FILE_INTAKE_CHANNEL) MessageChannel fileIntakeChannel,
+                       @Qualifier(AppConstants.ERROR_CHANNEL) MessageChannel errorChannel) {
+      this.properties = properties;
+      this.compositeFileFilter = compositeFileFilter;
+      this.fileIntakeChannel = fileIntakeChannel;
+      this.errorChannel = errorChannel;
+   }
+
+   @Override
+   public void start() {
+      if (!properties.getIngestion().isWatchEnabled()) {
+         log.info("Inbox watch disabled, relying on directory scans every {}ms",
+                 properties.getIngestion().getRescanIntervalMs());
+         return;
+      }
+
+      Path inbox = Path.of(properties.getInboxPath());
+      try {
+         Files.createDirectories(inbox);
+         watchService = FileSystems.getDefault().newWatchService();
+         inbox.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+      } catch (IOException e) {
+         log.error("Failed to watch inbox {}, relying on directory scans", inbox, e);
+         return;
+      }
+
+      running = true;
+      Thread watcherThread = new Thread(() -> watch(inbox), "inbox-watcher");
+      watcherThread.setDaemon(true);
+      watcherThread.start();
+      log.info("Watching inbox {} (settle time {}ms)", inbox, properties.getIngestion().getWatchSettleMs());
+   }
+
+   private void watch(Path inbox) {
+      long settleMs = properties.getIngestion().getWatchSettleMs();
+      Map<Path, Long> settling = new LinkedHashMap<>();
+
+      try {
+         while (running) {
+            WatchKey key = watchService.poll(settleMs, TimeUnit.MILLISECONDS);
+            if (key != null) {
+               for (WatchEvent<?> event : key.pollEvents()) {
+                  if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                     log.warn("Inbox watch events overflowed, missed files are picked up by the next scan");
+                     continue;
+                  }
+                  settling.put(inbox.resolve((Path) event.context()), System.currentTimeMillis());
+               }
+               if (!key.reset()) {
+                  log.error("Inbox {} is no longer watchable, relying on directory scans", inbox);
+                  running = false;
+               }
+            }
+
+            long settledBefore = System.currentTimeMillis() - settleMs;
+            Iterator<Map.Entry<Path, Long>> entries = settling.entrySet().iterator();
+            while (entries.hasNext()) {
+               Map.Entry<Path, Long> entry = entries.next();
+               if (entry.getValue() <= settledBefore) {
+                  entries.remove();
+                  dispatch(entry.getKey().toFile());
+               }
+            }
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      } catch (ClosedWatchServiceException e) {
+         log.debug("Inbox watch service closed");
+      }
+   }
+
+   private void dispatch(File file) {
+      if (!file.isFile() || file.isHidden()) {
+         return;
+      }
+      try {
+         // The filter chain goes to Redis; a failure must not end the watcher thread
+         if (compositeFileFilter.filterFiles(new File[]{file}).isEmpty()) {
+            log.debug("Ignoring watch event for {}, filtered or already accepted", file.getName());
+            return;
+         }
+      } catch (RuntimeException e) {
+         log.error("Failed to filter {}, leaving it to the next directory scan", file.getName(), e);
+         return;
+      }
+
+      Message<File> message = MessageBuilder.withPayload(file)
+              .setHeader(FileHeaders.FILENAME, file.getName())
+              .setHeader(FileHeaders.ORIGINAL_FILE, file)
+              .setHeader(FileHeaders.RELATIVE_PATH, file.getName())
+              .build();
+
+      log.info("Picked up {} from watch event", file.getName());
+      try {
+         fileIntakeChannel.send(message);
+      } catch (Exception e) {
+         errorChannel.send(new ErrorMessage(new MessagingException(message, "Failed to process " + file.getName(), e)));
+      }
+   }
+
+   @Override
+   public void stop() {
+      running = false;
+      if (watchService != null) {
+         try {
+            watchService.close();
+         } catch (IOException e) {
+            log.warn("Failed to close inbox watch service", e);
+         }
+      }
+   }
+
+   @Override
+   public boolean isRunning() {
+      return running;
+   }
+}
@@ -0,0 +1,199 @@
+package com.demo.integration.it.service;
+
+import com.demo.integration.it.codec.BatchPayloadCodecs;
+import com.demo.integration.it.codec.PayloadFormat;
+import com.demo.integration.it.config.FileProcessorProperties;
+import com.demo.integration.it.constant.AppConstants;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.integration.redis.support.RedisHeaders;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+
+/*
+ * @created by 16/10/2026  - 16:10
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Recovers stream entries stuck in the consumer group's pending entries list,
+ * e.g. after the pod they were delivered to died. Entries idle for longer than
+ * the reclaim threshold are claimed by this consumer and fed back into the
+ * upload flow; entries that were already delivered too often go to the DLQ.
+ */
+@Service
+@Slf4j
+public class PendingEntryReclaimer implements InitializingBean, DisposableBean {
+
+   private final StringRedisTemplate redisTemplate;
+   private final RedisTemplate<String, byte[]> streamRedisTemplate;
+   private final FileProcessorProperties properties;
+   private final TaskScheduler taskScheduler;
+   private final MessageChannel streamInboundChannel;
+   private final StreamAcknowledger streamAcknowledger;
+   private final ObjectMapper objectMapper;
+   private final BatchPayloadCodecs payloadCodecs;
+   private final ClaimCheckStore claimCheckStore;
+   private ScheduledFuture<?> reclaimTask;
+
+   public PendingEntryReclaimer(StringRedisTemplate redisTemplate,
+                                RedisTemplate<String, byte[]> streamRedisTemplate,
+                                FileProcessorProperties properties,
+                                TaskScheduler taskScheduler,
+                                @Qualifier(AppConstants.STREAM_INBOUND_CHANNEL) MessageChannel streamInboundChannel,
+                                StreamAcknowledger streamAcknowledger,
+                                ObjectMapper objectMapper,
+                                BatchPayloadCodecs payloadCodecs,
+                                ClaimCheckStore claimCheckStore) {
+      this.redisTemplate = redisTemplate;
+      this.streamRedisTemplate = streamRedisTemplate;
+      this.properties = properties;
+      this.taskScheduler = taskScheduler;
+      this.streamInboundChannel = streamInboundChannel;
+      this.streamAcknowledger = streamAcknowledger;
+      this.objectMapper = objectMapper;
+      this.payloadCodecs = payloadCodecs;
+      this.claimCheckStore = claimCheckStore;
+   }
+
+   @Override
+   public void afterPropertiesSet() {
+      reclaimTask = taskScheduler.scheduleWithFixedDelay(this::reclaim,
+              Instant.now().plusMillis(properties.getRedisQueue().getReclaimIntervalMs()),
+              Duration.ofMillis(properties.getRedisQueue().getReclaimIntervalMs()));
+   }
+
+   public void reclaim() {
+      FileProcessorProperties.RedisQueue queue = properties.getRedisQueue();
+      Duration minIdle = Duration.ofMillis(queue.getReclaimMinIdleMs());
+
+      try {
+         PendingMessages pending = redisTemplate.opsForStream().pending(
+                 queue.getStreamKey(), queue.getConsumerGroup(), Range.unbounded(), queue.getReclaimBatchSize());
+
+         List<RecordId> toClaim = new ArrayList<>();
+         for (PendingMessage message : pending) {
+            if (message.getElapsedTimeSinceLastDelivery().compareTo(minIdle) < 0) {
+               continue;
+            }
+            if (message.getTotalDeliveryCount() >= queue.getMaxDeliveries()) {
+               moveToDLQ(message);
+            } else {
+               toClaim.add(message.getId());
+            }
+         }
+
+         if (toClaim.isEmpty()) {
+            return;
+         }
+
+         List<MapRecord<String, Object, Object>> claimed = streamRedisTemplate.opsForStream().claim(
+                 queue.getStreamKey(), queue.getConsumerGroup(), queue.getConsumerName(),
+                 minIdle, toClaim.toArray(RecordId[]::new));
+
+         log.info("Reclaimed {} idle pending entries for consumer {}", claimed.size(), queue.getConsumerName());
+         claimed.forEach(this::redeliver);
+      } catch (Exception e) {
+         log.error("Failed to reclaim pending stream entries", e);
+      }
+   }
+
+   private void redeliver(MapRecord<String, Object, Object> record) {
+      if (!record.getValue().containsKey(AppConstants.STREAM_PAYLOAD_FIELD)
+              && !record.getValue().containsKey(AppConstants.STREAM_PAYLOAD_REF_FIELD)) {
+         log.warn("Reclaimed entry {} has no batch payload, acknowledging", record.getId());
+         streamAcknowledger.acknowledge(record.getId());
+         return;
+      }
+
+      try {
+         // Same shape as entries from the stream receiver: field name to raw value
+         Map<String, Object> entry = new HashMap<>();
+         record.getValue().forEach((field, value) -> entry.put(field.toString(), value));
+         streamInboundChannel.send(MessageBuilder
+                 .withPayload(entry)
+                 .setHeader(RedisHeaders.STREAM_KEY, record.getStream())
+                 .setHeader(RedisHeaders.STREAM_MESSAGE_ID, record.getId())
+                 .build());
+      } catch (Exception e) {
+         log.error("Failed to redeliver reclaimed entry {}", record.getId(), e);
+      }
+   }
+
+   private void moveToDLQ(PendingMessage message) {
+      FileProcessorProperties.RedisQueue queue = properties.getRedisQueue();
+      try {
+         List<MapRecord<String, Object, Object>> records = streamRedisTemplate.opsForStream()
+                 .range(queue.getStreamKey(), Range.closed(message.getIdAsString(), message.getIdAsString()));
+         Map<Object, Object> entry = records.isEmpty() ? Map.of() : records.get(0).getValue();
+
+         Map<String, Object> dlqEntry = Map.of(
+                 "payload", dlqPayload(entry),
+                 "codec", payloadCodecs.codecFor(entry).contentType(),
+                 "recordId", message.getIdAsString(),
+                 "error", "Exceeded %d deliveries".formatted(message.getTotalDeliveryCount()),
+                 "timestamp", Instant.now().toString()
+         );
+         redisTemplate.opsForList().rightPush(queue.getDlqKey(), objectMapper.writeValueAsString(dlqEntry));
+         // The DLQ entry carries the payload itself, so a claim-checked copy is no longer needed
+         streamAcknowledger.acknowledge(message.getId(), ClaimCheckStore.referenceOf(entry));
+
+         log.error("Moved pending entry {} to DLQ {} after {} deliveries",
+                 message.getId(), queue.getDlqKey(), message.getTotalDeliveryCount());
+      } catch (Exception e) {
+         log.error("Failed to move pending entry {} to DLQ", message.getId(), e);
+      }
+   }
+
+   /**
+    * JSON payloads are stored as text; binary ones as base64. Claim-checked
+    * payloads are fetched, since their key expires.
+    */
+   private String dlqPayload(Map<Object, Object> entry) throws IOException {
+      Map<?, ?> resolved;
+      try {
+         resolved = claimCheckStore.checkOut(entry);
+      } catch (IOException e) {
+         log.warn("Claim-checked payload is gone, moving entry to DLQ without it", e);
+         return "";
+      }
+      if (!resolved.containsKey(AppConstants.STREAM_PAYLOAD_FIELD)) {
+         return "";
+      }
+      byte[] bytes = payloadCodecs.payloadBytes(resolved);
+      return payloadCodecs.codecFor(entry).contentType().equals(PayloadFormat.JSON.getContentType())
+              ? new String(bytes, StandardCharsets.UTF_8)
+              : Base64.getEncoder().encodeToString(bytes);
+   }
+
+   @Override
+   public void destroy() {
+      if (reclaimTask != null) {
+         reclaimTask.cancel(false);
+      }
+   }
+}
@@ -0,0 +1,189 @@
+package com.demo.integration.it.service;
+
+import com.demo.integration.it.config.FileProcessorProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * @created by 16/10/2026  - 11:05
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Buffers stream entries per file and writes them to Redis as one pipelined
+ * batch of XADDs, either when the buffer reaches the flush size or when the
+ * linger time since its first entry has elapsed. Claim-checked payloads are SET
+ * in the same pipeline, each queued right before the XADD that references it.
+ */
+@Service
+@Slf4j
+public class RedisStreamPublisher implements DisposableBean {
+
+   private final RedisTemplate<String, byte[]> streamRedisTemplate;
+   private final FileProcessorProperties properties;
+   private final TaskScheduler taskScheduler;
+   private final ClaimCheckStore claimCheckStore;
+
+   private final Map<String, PendingBuffer> buffers = new HashMap<>();
+   private final ReentrantLock lock = new ReentrantLock();
+
+   public RedisStreamPublisher(RedisTemplate<String, byte[]> streamRedisTemplate,
+                               FileProcessorProperties properties,
+                               TaskScheduler taskScheduler,
+                               ClaimCheckStore claimCheckStore) {
+      this.streamRedisTemplate = streamRedisTemplate;
+      this.properties = properties;
+      this.taskScheduler = taskScheduler;
+      this.claimCheckStore = claimCheckStore;
+   }
+
+   public CompletableFuture<RecordId> publish(String bufferKey, ClaimCheckStore.Prepared prepared) {
+      PendingEntry entry = new PendingEntry(prepared, new CompletableFuture<>());
+      PendingBuffer full = null;
+
+      lock.lock();
+      try {
+         PendingBuffer buffer = buffers.computeIfAbsent(bufferKey, this::newBuffer);
+         buffer.entries.add(entry);
+
+         if (buffer.entries.size() >= properties.getRedisQueue().getPublishFlushSize()) {
+            buffers.remove(bufferKey);
+            full = buffer;
+         }
+      } finally {
+         lock.unlock();
+      }
+
+      if (full != null) {
+         full.lingerTask.cancel(false);
+         flush(bufferKey, full.entries);
+      }
+      return entry.result;
+   }
+
+   private PendingBuffer newBuffer(String bufferKey) {
+      PendingBuffer buffer = new PendingBuffer();
+      Instant deadline = Instant.now().plusMillis(properties.getRedisQueue().getPublishLingerMs());
+      buffer.lingerTask = taskScheduler.schedule(() -> flushOnLinger(bufferKey, buffer), deadline);
+      return buffer;
+   }
+
+   private void flushOnLinger(String bufferKey, PendingBuffer buffer) {
+      lock.lock();
+      try {
+         if (!buffers.remove(bufferKey, buffer)) {
+            return;
+         }
+      } finally {
+         lock.unlock();
+      }
+      flush(bufferKey, buffer.entries);
+   }
+
+   private void flush(String bufferKey, List<PendingEntry> entries) {
+      byte[] streamKey = properties.getRedisQueue().getStreamKey().getBytes(StandardCharsets.UTF_8);
+      Expiration payloadTtl = Expiration.from(claimCheckStore.ttl());
+      long start = System.nanoTime();
+
+      List<Object> results;
+      try {
+         results = streamRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (PendingEntry entry : entries) {
+               if (entry.claimChecked()) {
+                  connection.stringCommands().set(entry.prepared().payloadKey().getBytes(StandardCharsets.UTF_8),
+                          entry.prepared().payload(), payloadTtl, RedisStringCommands.SetOption.UPSERT);
+               }
+               connection.streamCommands().xAdd(StreamRecords.rawBytes(entry.rawBody()).withStreamKey(streamKey));
+            }
+            return null;
+         });
+      } catch (RedisPipelineException e) {
+         log.warn("Pipelined XADD for {} completed with errors", bufferKey, e);
+         results = e.getPipelineResult();
+      } catch (Exception e) {
+         log.error("Failed to flush {} stream entries for {}", entries.size(), bufferKey, e);
+         entries.forEach(entry -> entry.result.completeExceptionally(e));
+         return;
+      }
+
+      int index = 0;
+      for (PendingEntry entry : entries) {
+         Object setResult = entry.claimChecked() ? resultAt(results, index++) : null;
+         Object result = resultAt(results, index++);
+         if (setResult instanceof Throwable error) {
+            // The XADD went through anyway; its consumer fails to fetch the payload and leaves it pending
+            entry.result.completeExceptionally(error);
+         } else if (result instanceof RecordId recordId) {
+            entry.result.complete(recordId);
+         } else if (result instanceof Throwable error) {
+            entry.result.completeExceptionally(error);
+         } else {
+            entry.result.completeExceptionally(
+                    new IllegalStateException("Unexpected XADD result: " + result));
+         }
+      }
+
+      log.info("Flushed {} stream entries for {} in {} ms",
+              entries.size(), bufferKey, (System.nanoTime() - start) / 1_000_000);
+   }
+
+   private static Object resultAt(List<Object> results, int index) {
+      return index < results.size() ? results.get(index) : null;
+   }
+
+   @Override
+   public void destroy() {
+      Map<String, PendingBuffer> remaining;
+      lock.lock();
+      try {
+         remaining = new HashMap<>(buffers);
+         buffers.clear();
+      } finally {
+         lock.unlock();
+      }
+
+      remaining.forEach((bufferKey, buffer) -> {
+         buffer.lingerTask.cancel(false);
+         flush(bufferKey, buffer.entries);
+      });
+   }
+
+   private static final class PendingBuffer {
+      private final List<PendingEntry> entries = new ArrayList<>();
+      private ScheduledFuture<?> lingerTask;
+   }
+
+   private record PendingEntry(ClaimCheckStore.Prepared prepared, CompletableFuture<RecordId> result) {
+
+      private boolean claimChecked() {
+         return prepared.payloadKey() != null;
+      }
+
+      private Map<byte[], byte[]> rawBody() {
+         Map<byte[], byte[]> raw = new LinkedHashMap<>();
+         prepared.fields().forEach((field, value) -> raw.put(field.getBytes(StandardCharsets.UTF_8), value));
+         return raw;
+      }
+   }
+}
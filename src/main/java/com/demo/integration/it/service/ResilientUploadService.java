@@ -10,11 +10,19 @@ import io.github.resilience4j.reactor.ratelimiter.operator.RateLimiterOperator;
 import io.github.resilience4j.reactor.retry.RetryOperator;
 import io.github.resilience4j.retry.Retry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ClientHttpRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.util.function.Supplier;
+
 /*
  * @created by 24/10/2025  - 00:51
  * @project IntegrationDemo
@@ -30,45 +38,76 @@ public class ResilientUploadService {
    private final CircuitBreaker circuitBreaker;
    private final Retry retry;
    private final RateLimiter rateLimiter;
+   private final AdaptiveConcurrencyLimiter concurrencyLimiter;
 
    public ResilientUploadService(WebClient uploadWebClient,
                                  AuthenticationService authService,
                                  FileProcessorProperties properties,
                                  CircuitBreaker batchUploadCircuitBreaker,
                                  Retry batchUploadRetry,
-                                 RateLimiter batchUploadRateLimiter) {
+                                 RateLimiter batchUploadRateLimiter,
+                                 AdaptiveConcurrencyLimiter concurrencyLimiter) {
       this.webClient = uploadWebClient;
       this.authService = authService;
       this.properties = properties;
       this.circuitBreaker = batchUploadCircuitBreaker;
       this.retry = batchUploadRetry;
       this.rateLimiter = batchUploadRateLimiter;
+      this.concurrencyLimiter = concurrencyLimiter;
    }
 
    public Mono<String> uploadBatch(BatchRequest batch) {
-      return Mono.fromCallable(authService::getAccessToken)
-              .flatMap(token ->
-                      webClient.post()
-                              .uri(properties.getUploadUrl())
-                              .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
-                              .bodyValue(batch)
-                              .retrieve()
-                              .onStatus(
-                                      status -> status.value() == 401,
-                                      response -> Mono.error(new TokenExpiredException("Token rejected by server"))
-                              )
-                              .bodyToMono(String.class)
-                              .doOnSuccess(response ->
-                                      log.info("Successfully uploaded batch: {}", batch.getBatchId()))
-                              .doOnError(error ->
-                                      log.error("Failed to upload batch: {}", batch.getBatchId(), error))
-              )
+      // Deferred so every retry asks for the token again and picks up a refresh
+      Mono<String> upload = Mono.defer(authService::getAccessTokenReactive)
+              .flatMap(token -> limited(() -> post(batch, token)))
               .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
-              .transformDeferred(RetryOperator.of(retry))
-              .transformDeferred(RateLimiterOperator.of(rateLimiter))
-              .onErrorResume(error -> {
-                 log.error("All retries exhausted for batch: {}", batch.getBatchId(), error);
-                 return Mono.error(error);
-              });
+              .transformDeferred(RetryOperator.of(retry));
+
+      if (!properties.getAdaptiveConcurrency().isEnabled()) {
+         upload = upload.transformDeferred(RateLimiterOperator.of(rateLimiter));
+      }
+
+      return upload.onErrorResume(error -> {
+         log.error("All retries exhausted for batch: {}", batch.getBatchId(), error);
+         return Mono.error(error);
+      });
+   }
+
+   private Mono<String> limited(Supplier<Mono<String>> call) {
+      return properties.getAdaptiveConcurrency().isEnabled()
+              ? concurrencyLimiter.execute(call)
+              : call.get();
+   }
+
+   private Mono<String> post(BatchRequest batch, String token) {
+      return webClient.post()
+              .uri(properties.getUploadUrl())
+              .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+              .contentType(MediaType.APPLICATION_JSON)
+              .body(body(batch))
+              .retrieve()
+              .onStatus(
+                      status -> status.value() == 401,
+                      response -> authService.invalidateToken(token)
+                              .then(Mono.error(new TokenExpiredException("Token rejected by server")))
+              )
+              .bodyToMono(String.class)
+              .doOnSuccess(response ->
+                      log.info("Successfully uploaded batch: {}", batch.getBatchId()))
+              .doOnError(error ->
+                      log.error("Failed to upload batch: {}", batch.getBatchId(), error));
+   }
+
+   /**
+    * The stream bytes when the batch was only envelope-decoded, wrapped without
+    * copying; otherwise the batch is serialized by the WebClient's JSON encoder.
+    */
+   private BodyInserter<?, ? super ClientHttpRequest> body(BatchRequest batch) {
+      byte[] raw = batch.getRawJson();
+      if (raw == null) {
+         return BodyInserters.fromValue(batch);
+      }
+      return BodyInserters.fromDataBuffers(
+              Mono.<DataBuffer>fromSupplier(() -> DefaultDataBufferFactory.sharedInstance.wrap(raw)));
    }
 }
@@ -0,0 +1,161 @@
+package com.demo.integration.it.service;
+
+import com.demo.integration.it.config.FileProcessorProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * @created by 16/10/2026  - 15:02
+ * @project IntegrationDemo
+ * @author Goodluck
+ */
+
+/**
+ * Collects stream record IDs from the upload handlers and acknowledges them with a
+ * single multi-ID XACK per tick instead of one round trip per record. Claim-check
+ * payload keys of acknowledged entries are deleted in the same pipeline.
+ */
+@Service
+@Slf4j
+public class StreamAcknowledger implements InitializingBean, DisposableBean {
+
+   private final StringRedisTemplate redisTemplate;
+   private final FileProcessorProperties properties;
+   private final TaskScheduler taskScheduler;
+
+   private final Queue<RecordId> pending = new ConcurrentLinkedQueue<>();
+   private final Queue<String> pendingPayloadKeys = new ConcurrentLinkedQueue<>();
+   private final AtomicInteger pendingCount = new AtomicInteger();
+   private final AtomicBoolean flushRequested = new AtomicBoolean();
+   private final ReentrantLock flushLock = new ReentrantLock();
+   private ScheduledFuture<?> flushTask;
+
+   public StreamAcknowledger(StringRedisTemplate redisTemplate,
+                             FileProcessorProperties properties,
+                             TaskScheduler taskScheduler) {
+      this.redisTemplate = redisTemplate;
+      this.properties = properties;
+      this.taskScheduler = taskScheduler;
+   }
+
+   @Override
+   public void afterPropertiesSet() {
+      flushTask = taskScheduler.scheduleWithFixedDelay(this::scheduledFlush,
+              Duration.ofMillis(properties.getRedisQueue().getAckFlushIntervalMs()));
+   }
+
+   public void acknowledge(RecordId recordId) {
+      acknowledge(recordId, null);
+   }
+
+   /**
+    * Queues the entry for acknowledgement and, if it was claim-checked, its
+    * payload key for deletion.
+    */
+   public void acknowledge(RecordId recordId, String payloadKey) {
+      if (recordId == null) {
+         log.warn("Cannot acknowledge message without a stream record ID");
+         return;
+      }
+
+      // Counted before it is queued, so a concurrent flush never drives the count below zero
+      int count = pendingCount.incrementAndGet();
+      pending.add(recordId);
+      if (payloadKey != null) {
+         pendingPayloadKeys.add(payloadKey);
+      }
+      if (count >= properties.getRedisQueue().getAckMaxBatch()
+              && flushRequested.compareAndSet(false, true)) {
+         taskScheduler.schedule(this::scheduledFlush, Instant.now());
+      }
+   }
+
+   /**
+    * An exception escaping a fixed-delay task would cancel it for good, leaving
+    * partial batches unacknowledged until they are reclaimed and uploaded again.
+    */
+   private void scheduledFlush() {
+      try {
+         flush();
+      } catch (RuntimeException e) {
+         log.error("Failed to flush stream acknowledgements", e);
+      }
+   }
+
+   public void flush() {
+      flushLock.lock();
+      try {
+         flushRequested.set(false);
+         int maxBatch = properties.getRedisQueue().getAckMaxBatch();
+
+         while (!pending.isEmpty()) {
+            List<RecordId> ids = new ArrayList<>(maxBatch);
+            RecordId recordId;
+            while (ids.size() < maxBatch && (recordId = pending.poll()) != null) {
+               ids.add(recordId);
+            }
+            pendingCount.addAndGet(-ids.size());
+
+            List<String> payloadKeys = new ArrayList<>();
+            String payloadKey;
+            while ((payloadKey = pendingPayloadKeys.poll()) != null) {
+               payloadKeys.add(payloadKey);
+            }
+            acknowledgeAll(ids, payloadKeys);
+         }
+      } finally {
+         flushLock.unlock();
+      }
+   }
+
+   private void acknowledgeAll(List<RecordId> ids, List<String> payloadKeys) {
+      String streamKey = properties.getRedisQueue().getStreamKey();
+      String consumerGroup = properties.getRedisQueue().getConsumerGroup();
+      try {
+         if (payloadKeys.isEmpty()) {
+            Long acknowledged = redisTemplate.opsForStream().acknowledge(
+                    streamKey, consumerGroup, ids.toArray(RecordId[]::new));
+            log.info("Acknowledged {}/{} Redis records in one XACK", acknowledged, ids.size());
+            return;
+         }
+
+         List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.xAck(streamKey, consumerGroup, ids.toArray(RecordId[]::new));
+            stringConnection.del(payloadKeys.toArray(String[]::new));
+            return null;
+         });
+         log.info("Acknowledged {}/{} Redis records in one XACK, deleted {} claim-checked payloads",
+                 results.get(0), ids.size(), results.get(1));
+      } catch (Exception e) {
+         // Entries stay in the consumer group's pending entries list
+         log.error("Failed to acknowledge {} Redis records", ids.size(), e);
+      }
+   }
+
+   @Override
+   public void destroy() {
+      if (flushTask != null) {
+         flushTask.cancel(false);
+      }
+      flush();
+   }
+}
@@ -0,0 +1,52 @@
+package com.demo.integration.it.codec;
+
+import com.demo.integration.it.model.BatchRequest;
+import com.demo.integration.it.model.OrderRecord;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryBatchPayloadCodecTest {
+
+   private final BinaryBatchPayloadCodec codec = new BinaryBatchPayloadCodec();
+
+   @Test
+   void roundTripsAFullBatch() throws IOException {
+      BatchRequest batch = new BatchRequest("batch-1", "request-1", Instant.parse("2026-10-17T10:15:30.123456789Z"),
+              "orders.xlsx", List.of(
+              new OrderRecord("ORD-1", "Zoë Müller", "Laptop", new BigDecimal("1234.50"), LocalDate.of(2026, 1, 31)),
+              new OrderRecord("ORD-2", "Customer 2", "Mouse", new BigDecimal("-0.001"), LocalDate.of(1969, 12, 31))));
+
+      assertThat(codec.decode(codec.encode(batch))).isEqualTo(batch);
+   }
+
+   @Test
+   void roundTripsNullFields() throws IOException {
+      BatchRequest batch = new BatchRequest(null, null, null, null,
+              List.of(new OrderRecord(null, null, null, null, null)));
+
+      assertThat(codec.decode(codec.encode(batch))).isEqualTo(batch);
+   }
+
+   @Test
+   void decodesMissingRecordsAsEmpty() throws IOException {
+      BatchRequest batch = new BatchRequest("batch-1", "request-1", null, "orders.xlsx", null);
+
+      assertThat(codec.decode(codec.encode(batch)).getRecords()).isEmpty();
+   }
+
+   @Test
+   void rejectsUnknownLayoutVersions() throws IOException {
+      byte[] payload = codec.encode(new BatchRequest());
+      payload[0] = 99;
+
+      assertThatThrownBy(() -> codec.decode(payload)).isInstanceOf(IOException.class);
+   }
+}
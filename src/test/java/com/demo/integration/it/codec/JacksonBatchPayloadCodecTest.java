@@ -0,0 +1,75 @@
+package com.demo.integration.it.codec;
+
+import com.demo.integration.it.config.ObjectMapperConfiguration;
+import com.demo.integration.it.model.BatchRequest;
+import com.demo.integration.it.model.OrderRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JacksonBatchPayloadCodecTest {
+
+   private final ObjectMapper objectMapper = new ObjectMapperConfiguration().objectMapper();
+   private final JacksonBatchPayloadCodec codec =
+           new JacksonBatchPayloadCodec(PayloadFormat.JSON.getContentType(), objectMapper);
+
+   private final BatchRequest batch = new BatchRequest("batch-1", "request-1",
+           Instant.parse("2026-10-17T10:15:30.123Z"), "orders.xlsx", List.of(
+           new OrderRecord("ORD-1", "Customer 1", "Laptop", new BigDecimal("1234.50"), LocalDate.of(2026, 1, 31)),
+           new OrderRecord("ORD-2", "Customer 2", "Mouse", new BigDecimal("19.99"), LocalDate.of(2026, 2, 1))));
+
+   @Test
+   void roundTripsAFullBatch() throws IOException {
+      assertThat(codec.decode(codec.encode(batch))).isEqualTo(batch);
+   }
+
+   @Test
+   void envelopeKeepsTheRawBytesAndSkipsRecords() throws IOException {
+      byte[] payload = codec.encode(batch);
+
+      BatchRequest envelope = codec.decodeEnvelope(payload);
+
+      assertThat(envelope.getBatchId()).isEqualTo("batch-1");
+      assertThat(envelope.getRequestId()).isEqualTo("request-1");
+      assertThat(envelope.getSourceFileName()).isEqualTo("orders.xlsx");
+      assertThat(envelope.getTimestamp()).isEqualTo(batch.getTimestamp());
+      assertThat(envelope.getRecords()).isNull();
+      assertThat(envelope.getRawJson()).isSameAs(payload);
+   }
+
+   @Test
+   void envelopeToleratesFieldOrderAndUnknownFields() throws IOException {
+      byte[] payload = """
+              {"records":[{"orderId":"ORD-1","nested":{"batchId":"wrong"}}],
+               "extra":{"batchId":"wrong"},"batchId":"batch-1","sourceFileName":null}
+              """.getBytes(StandardCharsets.UTF_8);
+
+      BatchRequest envelope = codec.decodeEnvelope(payload);
+
+      assertThat(envelope.getBatchId()).isEqualTo("batch-1");
+      assertThat(envelope.getSourceFileName()).isNull();
+      assertThat(envelope.getTimestamp()).isNull();
+   }
+
+   @Test
+   void rawJsonIsNotSerialized() throws IOException {
+      BatchRequest envelope = codec.decodeEnvelope(codec.encode(batch));
+
+      assertThat(objectMapper.writeValueAsString(envelope)).doesNotContain("rawJson");
+   }
+
+   @Test
+   void envelopeRejectsNonObjectPayloads() {
+      assertThatThrownBy(() -> codec.decodeEnvelope("[]".getBytes(StandardCharsets.UTF_8)))
+              .isInstanceOf(IOException.class);
+   }
+}
@@ -0,0 +1,117 @@
+package com.demo.integration.it.codec;
+
+import com.demo.integration.it.config.FileProcessorProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PayloadCompressionTest {
+
+   private static final String JSON = "{\"batchId\":\"b-1\",\"records\":["
+           + "{\"orderId\":\"ORD-1\",\"product\":\"Laptop\"},".repeat(50)
+           + "{\"orderId\":\"ORD-2\",\"product\":\"Mouse\"}]}";
+
+   private static PayloadCompression compression(String algorithm, int thresholdBytes) {
+      FileProcessorProperties properties = new FileProcessorProperties();
+      properties.getCompression().setAlgorithm(algorithm);
+      properties.getCompression().setThresholdBytes(thresholdBytes);
+      return new PayloadCompression(properties, new SimpleMeterRegistry());
+   }
+
+   @Test
+   void deflateRoundTrips() throws IOException {
+      DeflatePayloadCompressor deflate = new DeflatePayloadCompressor(6, 1024 * 1024);
+      byte[] payload = JSON.getBytes(StandardCharsets.UTF_8);
+
+      byte[] compressed = deflate.compress(payload);
+
+      assertThat(compressed.length).isLessThan(payload.length);
+      assertThat(deflate.decompress(compressed)).isEqualTo(payload);
+   }
+
+   @Test
+   void deflateRoundTripsEmptyPayloads() throws IOException {
+      DeflatePayloadCompressor deflate = new DeflatePayloadCompressor(6, 1024 * 1024);
+
+      assertThat(deflate.decompress(deflate.compress(new byte[0]))).isEmpty();
+   }
+
+   @Test
+   void deflateRejectsTruncatedPayloads() {
+      DeflatePayloadCompressor deflate = new DeflatePayloadCompressor(6, 1024 * 1024);
+      byte[] compressed = deflate.compress(JSON.getBytes(StandardCharsets.UTF_8));
+
+      assertThatThrownBy(() -> deflate.decompress(Arrays.copyOf(compressed, compressed.length / 2)))
+              .isInstanceOf(IOException.class);
+   }
+
+   @Test
+   void deflateRejectsPayloadsInflatingPastTheLimit() {
+      byte[] payload = JSON.getBytes(StandardCharsets.UTF_8);
+      byte[] compressed = new DeflatePayloadCompressor(6, payload.length).compress(payload);
+
+      assertThatThrownBy(() -> new DeflatePayloadCompressor(6, payload.length - 1).decompress(compressed))
+              .isInstanceOf(IOException.class);
+   }
+
+   @Test
+   void textRoundTripsWithAlgorithmPrefix() throws IOException {
+      PayloadCompression compression = compression("deflate", 0);
+
+      String stored = compression.compressText(JSON, "db");
+
+      assertThat(stored).startsWith("deflate:");
+      assertThat(compression.decompressText(stored, "db")).isEqualTo(JSON);
+   }
+
+   @Test
+   void leavesTextBelowTheThresholdUncompressed() throws IOException {
+      PayloadCompression compression = compression("deflate", 1_000_000);
+
+      assertThat(compression.compressText(JSON, "db")).isEqualTo(JSON);
+   }
+
+   @Test
+   void leavesTextUncompressedWhenDisabled() throws IOException {
+      assertThat(compression("none", 0).compressText(JSON, "db")).isEqualTo(JSON);
+   }
+
+   @Test
+   void readsLegacyUncompressedRows() throws IOException {
+      // Rows written before compression existed, or with compression off, are plain JSON
+      assertThat(compression("deflate", 0).decompressText(JSON, "db")).isEqualTo(JSON);
+      assertThat(compression("none", 0).decompressText(JSON, "db")).isEqualTo(JSON);
+   }
+
+   @Test
+   void readsCompressedRowsWhileCompressionIsOff() throws IOException {
+      String stored = compression("deflate", 0).compressText(JSON, "db");
+
+      assertThat(compression("none", 0).decompressText(stored, "db")).isEqualTo(JSON);
+   }
+
+   @Test
+   void streamPayloadsCarryTheirAlgorithm() throws IOException {
+      PayloadCompression compression = compression("deflate", 0);
+      byte[] payload = JSON.getBytes(StandardCharsets.UTF_8);
+
+      PayloadCompression.Compressed compressed = compression.compress(payload, "stream");
+
+      assertThat(compressed.algorithm()).isEqualTo("deflate");
+      assertThat(compression.decompress(compressed.bytes(), compressed.algorithm(), "stream")).isEqualTo(payload);
+      assertThat(compression.decompress(payload, null, "stream")).isEqualTo(payload);
+   }
+
+   @Test
+   void rejectsUnknownAlgorithms() {
+      assertThatThrownBy(() -> compression("lz4", 0)).isInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> compression("none", 0).decompressText("lz4:AAAA", "db"))
+              .isInstanceOf(IOException.class);
+   }
+}
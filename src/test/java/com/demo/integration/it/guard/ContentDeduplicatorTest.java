@@ -0,0 +1,92 @@
+package com.demo.integration.it.guard;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ContentDeduplicatorTest {
+
+   private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+   @SuppressWarnings("unchecked")
+   private final ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+   private ContentDeduplicator deduplicator;
+
+   @BeforeEach
+   void setUp() {
+      when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+      deduplicator = new ContentDeduplicator(redisTemplate);
+   }
+
+   @Test
+   void acceptsContentOnlyOnceTheClaimIsInRedis() {
+      String checksum = checksum("orders");
+      when(valueOperations.setIfAbsent(eq("file:content:" + checksum), eq("a.xlsx"), any(Duration.class)))
+              .thenReturn(true);
+
+      assertThat(deduplicator.claim(checksum, "a.xlsx")).isTrue();
+      verify(valueOperations).setIfAbsent(eq("file:content:" + checksum), eq("a.xlsx"), any(Duration.class));
+   }
+
+   @Test
+   void rejectsContentClaimedByAnotherNode() {
+      String checksum = checksum("orders");
+      when(valueOperations.setIfAbsent(any(), any(), any(Duration.class))).thenReturn(false);
+
+      assertThat(deduplicator.claim(checksum, "renamed.xlsx")).isFalse();
+   }
+
+   @Test
+   void rejectsRepeatedContentAndReportsTheOwner() {
+      String checksum = checksum("orders");
+      when(valueOperations.setIfAbsent(any(), eq("a.xlsx"), any(Duration.class))).thenReturn(true);
+      when(valueOperations.setIfAbsent(any(), eq("b.xlsx"), any(Duration.class))).thenReturn(false);
+      when(valueOperations.get("file:content:" + checksum)).thenReturn("a.xlsx");
+
+      assertThat(deduplicator.claim(checksum, "a.xlsx")).isTrue();
+      assertThat(deduplicator.claim(checksum, "b.xlsx")).isFalse();
+      verify(valueOperations).get("file:content:" + checksum);
+   }
+
+   @Test
+   void acceptsDifferentContent() {
+      when(valueOperations.setIfAbsent(any(), any(), any(Duration.class))).thenReturn(true);
+
+      assertThat(deduplicator.claim(checksum("orders"), "a.xlsx")).isTrue();
+      assertThat(deduplicator.claim(checksum("invoices"), "b.xlsx")).isTrue();
+   }
+
+   @Test
+   void releaseDeletesTheClaimOnlyIfStillOwned() {
+      String checksum = checksum("orders");
+
+      deduplicator.release(checksum, "a.xlsx");
+
+      verify(redisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(),
+              eq(List.of("file:content:" + checksum)), eq("a.xlsx"));
+   }
+
+   private static String checksum(String content) {
+      try {
+         byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+         return ChecksumAlgorithm.SHA256.format(digest);
+      } catch (NoSuchAlgorithmException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+}
@@ -0,0 +1,141 @@
+package com.demo.integration.it.service;
+
+import com.demo.integration.it.config.FileProcessorProperties;
+import com.demo.integration.it.exception.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+   private FileProcessorProperties.AdaptiveConcurrency config;
+
+   @BeforeEach
+   void setUp() {
+      config = new FileProcessorProperties.AdaptiveConcurrency();
+      config.setWindowSize(2);
+      config.setMinLimit(1);
+      config.setMaxLimit(10);
+      config.setBackoffRatio(0.5);
+   }
+
+   private static WebClientResponseException response(int status) {
+      return WebClientResponseException.create(status, "status " + status, new HttpHeaders(), new byte[0], null);
+   }
+
+   private static WebClientRequestException request(Throwable cause) {
+      return new WebClientRequestException(cause, HttpMethod.POST, URI.create("http://upload"), new HttpHeaders());
+   }
+
+   private AdaptiveConcurrencyLimiter limiter() {
+      FileProcessorProperties properties = new FileProcessorProperties();
+      properties.setAdaptiveConcurrency(config);
+      return new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+   }
+
+   @Test
+   void growsByOneAfterAHealthyWindowThatUsedTheLimit() {
+      config.setInitialLimit(1);
+      AdaptiveConcurrencyLimiter limiter = limiter();
+
+      limiter.execute(() -> Mono.just("ok")).block();
+      limiter.execute(() -> Mono.just("ok")).block();
+
+      assertThat(limiter.getLimit()).isEqualTo(2);
+      assertThat(limiter.getInFlight()).isZero();
+   }
+
+   @Test
+   void backsOffAfterAWindowOfOverloads() {
+      config.setInitialLimit(8);
+      AdaptiveConcurrencyLimiter limiter = limiter();
+      WebClientResponseException unavailable = response(503);
+
+      for (int i = 0; i < 2; i++) {
+         StepVerifier.create(limiter.execute(() -> Mono.error(unavailable)))
+                 .expectError(WebClientResponseException.class)
+                 .verify();
+      }
+
+      assertThat(limiter.getLimit()).isEqualTo(4);
+   }
+
+   @Test
+   void neverBacksOffBelowTheMinimum() {
+      config.setInitialLimit(1);
+      AdaptiveConcurrencyLimiter limiter = limiter();
+
+      for (int i = 0; i < 2; i++) {
+         StepVerifier.create(limiter.execute(() -> Mono.error(ReadTimeoutException.INSTANCE)))
+                 .expectError()
+                 .verify();
+      }
+
+      assertThat(limiter.getLimit()).isEqualTo(1);
+   }
+
+   @Test
+   void waiterTimesOutWhenNoPermitFreesUp() {
+      config.setInitialLimit(1);
+      config.setMaxWaitMs(50);
+      AdaptiveConcurrencyLimiter limiter = limiter();
+
+      Disposable holder = limiter.execute(Mono::never).subscribe();
+      try {
+         StepVerifier.create(limiter.execute(() -> Mono.just("late")))
+                 .expectError(ConcurrencyLimitExceededException.class)
+                 .verify(Duration.ofSeconds(5));
+
+         assertThat(limiter.getQueued()).isZero();
+         assertThat(limiter.getInFlight()).isEqualTo(1);
+      } finally {
+         holder.dispose();
+      }
+      assertThat(limiter.getInFlight()).isZero();
+   }
+
+   @Test
+   void rejectsWhenTheQueueIsFull() {
+      config.setInitialLimit(1);
+      config.setMaxQueued(0);
+      AdaptiveConcurrencyLimiter limiter = limiter();
+
+      Disposable holder = limiter.execute(Mono::never).subscribe();
+      try {
+         StepVerifier.create(limiter.execute(() -> Mono.just("rejected")))
+                 .expectError(ConcurrencyLimitExceededException.class)
+                 .verify(Duration.ofSeconds(5));
+      } finally {
+         holder.dispose();
+      }
+   }
+
+   @Test
+   void classifiesWrappedTimeoutsAsOverload() {
+      AdaptiveConcurrencyLimiter limiter = limiter();
+
+      assertThat(limiter.isOverload(request(ReadTimeoutException.INSTANCE))).isTrue();
+      assertThat(limiter.isOverload(response(429))).isTrue();
+      assertThat(limiter.isOverload(response(400))).isFalse();
+      assertThat(limiter.isOverload(new IllegalStateException("bug"))).isFalse();
+   }
+
+   @Test
+   void doesNotClassifyRefusedConnectionsAsOverload() {
+      assertThat(limiter().isOverload(request(new ConnectException("Connection refused")))).isFalse();
+   }
+}
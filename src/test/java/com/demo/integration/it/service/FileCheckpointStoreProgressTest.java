@@ -0,0 +1,43 @@
+package com.demo.integration.it.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileCheckpointStoreProgressTest {
+
+   @Test
+   void advancesOnlyOverContiguousSequences() {
+      FileCheckpointStore.Progress progress = new FileCheckpointStore.Progress(0);
+
+      assertThat(progress.complete(2)).isZero();
+      assertThat(progress.complete(3)).isZero();
+      assertThat(progress.complete(1)).isEqualTo(3);
+      assertThat(progress.complete(5)).isZero();
+      assertThat(progress.complete(4)).isEqualTo(5);
+   }
+
+   @Test
+   void ignoresSequencesAtOrBelowTheCheckpoint() {
+      FileCheckpointStore.Progress progress = new FileCheckpointStore.Progress(4);
+
+      assertThat(progress.complete(3)).isZero();
+      assertThat(progress.complete(4)).isZero();
+      assertThat(progress.complete(5)).isEqualTo(5);
+   }
+
+   @Test
+   void isDueOnlyAfterTheInterval() {
+      FileCheckpointStore.Progress progress = new FileCheckpointStore.Progress(0);
+      progress.complete(1);
+      progress.complete(2);
+
+      assertThat(progress.due(3)).isZero();
+      progress.complete(3);
+      assertThat(progress.due(3)).isEqualTo(3);
+      assertThat(progress.due(1)).isZero();
+
+      progress.complete(4);
+      assertThat(progress.due(1)).isEqualTo(4);
+   }
+}
@@ -0,0 +1,104 @@
+package com.demo.integration.it.service;
+
+import com.demo.integration.it.config.FileProcessorProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class StreamAcknowledgerTest {
+
+   private static final String STREAM = "stream";
+   private static final String GROUP = "group";
+
+   private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+   @SuppressWarnings("unchecked")
+   private final StreamOperations<String, Object, Object> streamOperations = mock(StreamOperations.class);
+   private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+   private StreamAcknowledger acknowledger;
+
+   @BeforeEach
+   void setUp() {
+      FileProcessorProperties properties = new FileProcessorProperties();
+      properties.getRedisQueue().setStreamKey(STREAM);
+      properties.getRedisQueue().setConsumerGroup(GROUP);
+      properties.getRedisQueue().setAckMaxBatch(2);
+      doReturn(streamOperations).when(redisTemplate).opsForStream();
+      acknowledger = new StreamAcknowledger(redisTemplate, properties, taskScheduler);
+   }
+
+   @Test
+   void requestsAnEarlyFlushOncePerFullBatch() {
+      acknowledger.acknowledge(RecordId.of("1-0"));
+      verify(taskScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+
+      acknowledger.acknowledge(RecordId.of("2-0"));
+      acknowledger.acknowledge(RecordId.of("3-0"));
+      verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+   }
+
+   @Test
+   void flushesPendingIdsInBatchesOfAtMostTheMaximum() {
+      acknowledger.acknowledge(RecordId.of("1-0"));
+      acknowledger.acknowledge(RecordId.of("2-0"));
+      acknowledger.acknowledge(RecordId.of("3-0"));
+
+      acknowledger.flush();
+
+      verify(streamOperations).acknowledge(STREAM, GROUP, RecordId.of("1-0"), RecordId.of("2-0"));
+      verify(streamOperations).acknowledge(STREAM, GROUP, RecordId.of("3-0"));
+   }
+
+   @Test
+   void resetsTheCountAfterAFlush() {
+      acknowledger.acknowledge(RecordId.of("1-0"));
+      acknowledger.acknowledge(RecordId.of("2-0"));
+      acknowledger.flush();
+
+      acknowledger.acknowledge(RecordId.of("3-0"));
+
+      // Only the first full batch asked for an early flush
+      verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+   }
+
+   @Test
+   void flushWithNothingPendingDoesNotCallRedis() {
+      acknowledger.flush();
+
+      verifyNoInteractions(redisTemplate);
+   }
+
+   @Test
+   void ignoresMissingRecordIds() {
+      acknowledger.acknowledge(null);
+      acknowledger.flush();
+
+      verifyNoInteractions(redisTemplate);
+   }
+
+   @Test
+   void deletesClaimCheckedPayloadsInTheAckPipeline() {
+      when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(1L, 1L));
+
+      acknowledger.acknowledge(RecordId.of("1-0"), "batch:payload:1");
+      acknowledger.flush();
+
+      verify(redisTemplate).executePipelined(any(RedisCallback.class));
+      verify(streamOperations, never()).acknowledge(any(String.class), any(String.class), any(RecordId[].class));
+   }
+}